@@ -0,0 +1,37 @@
+package com.example.demo.model.persistence;
+
+import java.math.BigDecimal;
+
+/**
+ * Builds in-memory carts and orders for the benchmarks.
+ */
+final class BenchmarkData {
+
+    private BenchmarkData() {
+    }
+
+    static Cart cart(int distinctItems) {
+        User user = new User();
+        user.setId(1L);
+        user.setUsername("benchmarkUser");
+        user.setPassword("hashedPassword");
+
+        Cart cart = new Cart();
+        cart.setId(1L);
+        cart.setUser(user);
+        for (long id = 1; id <= distinctItems; id++) {
+            cart.addItem(item(id), 2);
+        }
+        user.setCart(cart);
+        return cart;
+    }
+
+    static Item item(long id) {
+        Item item = new Item();
+        item.setId(id);
+        item.setName("Item " + id);
+        item.setPrice(BigDecimal.valueOf(100 + id % 900, 2));
+        item.setDescription("Benchmark item " + id);
+        return item;
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.demo.model.persistence;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cart mutations and order creation for carts holding {@code cartSize} distinct items.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CartBenchmark {
+
+    @Param({"1", "100", "10000"})
+    private int cartSize;
+
+    private Cart cart;
+    private Item lastItem;
+
+    // addItem keeps bumping the same line, so start every iteration from a fresh cart rather
+    // than letting its quantity and total climb across the whole run.
+    @Setup(Level.Iteration)
+    public void setUp() {
+        cart = BenchmarkData.cart(cartSize);
+        lastItem = cart.getLines().get(cartSize - 1).getItem();
+    }
+
+    @Benchmark
+    public long addItem() {
+        cart.addItem(lastItem);
+        return cart.getTotalCents();
+    }
+
+    @Benchmark
+    public long addThenRemoveItem() {
+        cart.addItem(lastItem, 2);
+        cart.removeItem(lastItem, 2);
+        return cart.getTotalCents();
+    }
+
+    @Benchmark
+    public UserOrder createOrderFromCart() {
+        return UserOrder.createFromCart(cart);
+    }
+}
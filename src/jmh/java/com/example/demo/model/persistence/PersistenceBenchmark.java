@@ -0,0 +1,96 @@
+package com.example.demo.model.persistence;
+
+import com.example.demo.ECommerceApplication;
+import com.example.demo.model.persistence.repositories.OrderRepository;
+import com.example.demo.model.persistence.repositories.UserRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Persisting an order of {@code orderLines} lines through Hibernate into the in-memory database,
+ * with JDBC batching off ({@code jdbcBatchSize=1}) and on.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PersistenceBenchmark {
+
+    private static final long FIRST_ITEM_ID = 1_000_000L;
+
+    @Param({"1", "100", "10000"})
+    private int orderLines;
+
+    @Param({"1", "50"})
+    private int jdbcBatchSize;
+
+    private ConfigurableApplicationContext context;
+    private OrderRepository orderRepository;
+    private TransactionTemplate transactionTemplate;
+    private JdbcTemplate jdbcTemplate;
+    private Cart cart;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(ECommerceApplication.class).run(
+                "--server.port=0",
+                "--logging.level.root=WARN",
+                "--spring.datasource.url=jdbc:h2:mem:persistenceBenchmark;MODE=Oracle;DB_CLOSE_DELAY=-1",
+                "--spring.jpa.properties.hibernate.jdbc.batch_size=" + jdbcBatchSize);
+        orderRepository = context.getBean(OrderRepository.class);
+        transactionTemplate = context.getBean(TransactionTemplate.class);
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+
+        List<Object[]> items = new ArrayList<>();
+        cart = new Cart();
+        for (long id = FIRST_ITEM_ID; id < FIRST_ITEM_ID + orderLines; id++) {
+            Item item = BenchmarkData.item(id);
+            items.add(new Object[]{item.getId(), item.getName(), item.getPrice(), item.getDescription()});
+            cart.addItem(item, 2);
+        }
+        jdbcTemplate.batchUpdate("insert into item (id, name, price, description) values (?, ?, ?, ?)", items);
+
+        User user = new User();
+        user.setUsername("benchmarkUser");
+        user.setPassword("hashedPassword");
+        user.setCart(cart);
+        cart.setUser(context.getBean(UserRepository.class).save(user));
+    }
+
+    @TearDown(Level.Iteration)
+    public void deleteOrders() {
+        jdbcTemplate.update("delete from user_order_line");
+        jdbcTemplate.update("delete from user_order");
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Long saveOrder() {
+        return transactionTemplate.execute(status -> orderRepository.save(UserOrder.createFromCart(cart)).getId());
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.demo.model.persistence;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson serialization of the cart and order response bodies.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SerializationBenchmark {
+
+    @Param({"1", "100", "10000"})
+    private int lines;
+
+    private ObjectMapper objectMapper;
+    private Cart cart;
+    private UserOrder order;
+
+    @Setup
+    public void setUp() {
+        objectMapper = new ObjectMapper();
+        cart = BenchmarkData.cart(lines);
+        order = UserOrder.createFromCart(cart);
+        order.setId(1L);
+    }
+
+    @Benchmark
+    public byte[] serializeCart() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(cart);
+    }
+
+    @Benchmark
+    public byte[] serializeOrder() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(order);
+    }
+}
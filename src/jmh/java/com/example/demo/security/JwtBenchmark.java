@@ -0,0 +1,95 @@
+package com.example.demo.security;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import javax.servlet.FilterChain;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Issuing a token on login and verifying it on every authenticated request.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtBenchmark {
+
+    private static final FilterChain NO_OP_CHAIN = (request, response) -> { };
+
+    private JWTAuthenticationFilter authenticationFilter;
+    private JWTAuthenticationVerificationFilter cachedVerificationFilter;
+    private JWTAuthenticationVerificationFilter uncachedVerificationFilter;
+    private Authentication authentication;
+    private String[] headers;
+    private int next;
+
+    @Setup
+    public void setUp() throws Exception {
+        authenticationFilter = new JWTAuthenticationFilter(auth -> auth);
+        authentication = new UsernamePasswordAuthenticationToken(
+                new LoginUser(new UserPrincipal(1L, "benchmarkUser", 1L), "hashedPassword"), null);
+
+        cachedVerificationFilter = new JWTAuthenticationVerificationFilter(auth -> auth, new VerifiedTokenCache(10_000));
+        // with room for one token and two tokens alternating, every verification misses the cache
+        uncachedVerificationFilter = new JWTAuthenticationVerificationFilter(auth -> auth, new VerifiedTokenCache(1));
+
+        headers = new String[]{issue().getHeader(SecurityConstants.HEADER_STRING),
+                issue(2L, "otherBenchmarkUser").getHeader(SecurityConstants.HEADER_STRING)};
+    }
+
+    @Benchmark
+    public String issueToken() throws Exception {
+        return issue().getHeader(SecurityConstants.HEADER_STRING);
+    }
+
+    @Benchmark
+    public Object verifyToken_cached() throws Exception {
+        return verify(cachedVerificationFilter, headers[0]);
+    }
+
+    @Benchmark
+    public Object verifyToken_uncached() throws Exception {
+        next ^= 1;
+        return verify(uncachedVerificationFilter, headers[next]);
+    }
+
+    private MockHttpServletResponse issue() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        authenticationFilter.successfulAuthentication(new MockHttpServletRequest(), response, NO_OP_CHAIN,
+                authentication);
+        return response;
+    }
+
+    private MockHttpServletResponse issue(long userId, String username) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        authenticationFilter.successfulAuthentication(new MockHttpServletRequest(), response, NO_OP_CHAIN,
+                new UsernamePasswordAuthenticationToken(
+                        new LoginUser(new UserPrincipal(userId, username, userId), "hashedPassword"), null));
+        return response;
+    }
+
+    private static Object verify(JWTAuthenticationVerificationFilter filter, String header) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader(SecurityConstants.HEADER_STRING, header);
+        filter.doFilterInternal(request, new MockHttpServletResponse(), NO_OP_CHAIN);
+        Object principal = SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+        SecurityContextHolder.clearContext();
+        return principal;
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.demo.service;
+
+import com.example.demo.ECommerceApplication;
+import com.example.demo.model.persistence.Cart;
+import com.example.demo.model.persistence.Item;
+import com.example.demo.model.persistence.User;
+import com.example.demo.model.persistence.repositories.ItemRepository;
+import com.example.demo.model.persistence.repositories.UserRepository;
+import com.example.demo.model.requests.CartOperation;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * The same checkout workload (one cart write with two items, then an order) against each database
+ * profile: the in-memory default and h2file in a temporary directory. The h2server and jdbc profiles run
+ * with {@code -p profile=h2server} or {@code -p profile=jdbc} and the {@code DATABASE_*} environment
+ * variables set.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DatabaseProfileBenchmark {
+
+    @Param({"default", "h2file"})
+    private String profile;
+
+    private ConfigurableApplicationContext context;
+    private Path databaseDirectory;
+    private CartService cartService;
+    private OrderService orderService;
+    private String username;
+    private long cartId;
+    private List<CartOperation> operations;
+    private Map<Long, Item> items;
+
+    @Setup
+    public void setUp() throws Exception {
+        databaseDirectory = Files.createTempDirectory("ecommerce-benchmark");
+        SpringApplicationBuilder application = new SpringApplicationBuilder(ECommerceApplication.class);
+        if (!profile.equals("default")) {
+            application.profiles(profile);
+        }
+        context = application.run(
+                "--server.port=0",
+                "--logging.level.root=WARN",
+                "--app.datasource.h2.path=" + databaseDirectory.resolve("ecommerceapp"));
+        cartService = context.getBean(CartService.class);
+        orderService = context.getBean(OrderService.class);
+
+        items = new HashMap<>();
+        for (Item item : context.getBean(ItemRepository.class).findAllById(Arrays.asList(1L, 2L))) {
+            items.put(item.getId(), item);
+        }
+        operations = Arrays.asList(new CartOperation(1L, 2), new CartOperation(2L, 1));
+
+        // a fresh user per trial, since the h2server and jdbc profiles may point at a database that outlives the run
+        username = "benchmarkUser" + System.nanoTime();
+        User user = new User();
+        user.setUsername(username);
+        user.setPassword("hashedPassword");
+        user.setCart(new Cart());
+        cartId = context.getBean(UserRepository.class).save(user).getCart().getId();
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        context.close();
+        try (Stream<Path> files = Files.walk(databaseDirectory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public Long checkout() {
+        cartService.applyOperations(cartId, operations, items);
+        return orderService.submit(username, cartId, null).getOrder().getId();
+    }
+}
@@ -0,0 +1,117 @@
+package com.example.demo.cache;
+
+import java.time.Clock;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Small in-process cache that holds at most {@code maxSize} entries. Each entry carries its own
+ * expiry instant; expired entries are dropped on access and the least recently used entry is
+ * evicted once the cache is full.
+ */
+public class BoundedExpiringCache<K, V> {
+
+    private final int maxSize;
+    private final Clock clock;
+    private final LinkedHashMap<K, CacheEntry<V>> entries;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    public BoundedExpiringCache(int maxSize) {
+        this(maxSize, Clock.systemUTC());
+    }
+
+    public BoundedExpiringCache(int maxSize, Clock clock) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("maxSize must be positive, was " + maxSize);
+        }
+        this.maxSize = maxSize;
+        this.clock = clock;
+        this.entries = new LinkedHashMap<K, CacheEntry<V>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, CacheEntry<V>> eldest) {
+                if (size() > BoundedExpiringCache.this.maxSize) {
+                    evictions.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public synchronized V get(K key) {
+        CacheEntry<V> entry = entries.get(key);
+        if (entry == null) {
+            misses.incrementAndGet();
+            return null;
+        }
+        if (entry.isExpired(clock.millis())) {
+            entries.remove(key);
+            evictions.incrementAndGet();
+            misses.incrementAndGet();
+            return null;
+        }
+        hits.incrementAndGet();
+        return entry.value;
+    }
+
+    /**
+     * Stores {@code value} until the given epoch-millisecond instant. Values that are already
+     * expired are not stored.
+     */
+    public synchronized void put(K key, V value, long expiresAtMillis) {
+        if (expiresAtMillis <= clock.millis()) {
+            return;
+        }
+        entries.put(key, new CacheEntry<>(value, expiresAtMillis));
+    }
+
+    public synchronized void remove(K key) {
+        entries.remove(key);
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    /**
+     * Entries dropped because they expired or because the cache was full.
+     */
+    public long getEvictionCount() {
+        return evictions.get();
+    }
+
+    private static final class CacheEntry<V> {
+
+        private final V value;
+        private final long expiresAtMillis;
+
+        private CacheEntry(V value, long expiresAtMillis) {
+            this.value = value;
+            this.expiresAtMillis = expiresAtMillis;
+        }
+
+        private boolean isExpired(long nowMillis) {
+            return nowMillis >= expiresAtMillis;
+        }
+    }
+}
@@ -1,15 +1,40 @@
 package com.example.demo.config;
 
+import com.example.demo.security.BoundedBCryptPasswordEncoder;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
 @Configuration
 public class BCryptConfig {
 
     @Bean
-    public BCryptPasswordEncoder bCryptPasswordEncoder(){
-        return new BCryptPasswordEncoder();
+    public BCryptPasswordEncoder bCryptPasswordEncoder(@Value("${security.bcrypt.strength:10}") int strength,
+                                                       @Value("${security.bcrypt.timeout-ms:1000}") long timeoutMillis,
+                                                       ThreadPoolExecutor passwordHashingExecutor,
+                                                       MeterRegistry meterRegistry) {
+        return new BoundedBCryptPasswordEncoder(strength, passwordHashingExecutor, timeoutMillis, meterRegistry);
+    }
+
+    @Bean(destroyMethod = "shutdown")
+    public ThreadPoolExecutor passwordHashingExecutor(@Value("${security.bcrypt.pool-size:4}") int poolSize,
+                                                      @Value("${security.bcrypt.queue-capacity:8}") int queueCapacity) {
+        AtomicInteger threadSequence = new AtomicInteger();
+        ThreadFactory threadFactory = runnable -> {
+            Thread thread = new Thread(runnable, "bcrypt-" + threadSequence.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        return new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), threadFactory, new ThreadPoolExecutor.AbortPolicy());
     }
 
 }
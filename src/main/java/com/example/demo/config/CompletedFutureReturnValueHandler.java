@@ -0,0 +1,78 @@
+package com.example.demo.config;
+
+import org.springframework.core.MethodParameter;
+import org.springframework.core.ResolvableType;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.method.support.HandlerMethodReturnValueHandler;
+import org.springframework.web.method.support.HandlerMethodReturnValueHandlerComposite;
+import org.springframework.web.method.support.ModelAndViewContainer;
+
+import java.lang.reflect.Type;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Writes the value of a {@link CompletableFuture} that is already complete when the controller
+ * returns, instead of starting async processing for it.
+ *
+ * <p>In blocking execution mode every controller future is complete on return, and handing it to
+ * Spring's async support would only re-dispatch the request to write a value we already have.
+ * Futures that are still running, or that failed, go to the regular handlers unchanged.
+ */
+public class CompletedFutureReturnValueHandler implements HandlerMethodReturnValueHandler {
+
+    private final HandlerMethodReturnValueHandlerComposite delegates;
+
+    public CompletedFutureReturnValueHandler(HandlerMethodReturnValueHandlerComposite delegates) {
+        this.delegates = delegates;
+    }
+
+    @Override
+    public boolean supportsReturnType(MethodParameter returnType) {
+        return CompletableFuture.class.isAssignableFrom(returnType.getParameterType());
+    }
+
+    @Override
+    public void handleReturnValue(Object returnValue, MethodParameter returnType,
+                                  ModelAndViewContainer mavContainer, NativeWebRequest webRequest) throws Exception {
+        CompletableFuture<?> future = (CompletableFuture<?>) returnValue;
+        if (future == null || !future.isDone() || future.isCompletedExceptionally()) {
+            delegates.handleReturnValue(returnValue, returnType, mavContainer, webRequest);
+            return;
+        }
+        delegates.handleReturnValue(future.join(), new CompletedValueParameter(returnType), mavContainer, webRequest);
+    }
+
+    /**
+     * The controller's return type with the future unwrapped, so {@code CompletableFuture<ResponseEntity<Cart>>}
+     * is handled like a method declared to return {@code ResponseEntity<Cart>}.
+     */
+    private static final class CompletedValueParameter extends MethodParameter {
+
+        private final ResolvableType valueType;
+
+        CompletedValueParameter(MethodParameter returnType) {
+            super(returnType);
+            this.valueType = ResolvableType.forMethodParameter(returnType).getGeneric();
+        }
+
+        private CompletedValueParameter(CompletedValueParameter original) {
+            super(original);
+            this.valueType = original.valueType;
+        }
+
+        @Override
+        public Class<?> getParameterType() {
+            return valueType.toClass();
+        }
+
+        @Override
+        public Type getGenericParameterType() {
+            return valueType.getType();
+        }
+
+        @Override
+        public CompletedValueParameter clone() {
+            return new CompletedValueParameter(this);
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.demo.config;
+
+import com.example.demo.service.RequestExecutor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.concurrent.DelegatingSecurityContextExecutor;
+import org.springframework.web.method.support.HandlerMethodReturnValueHandler;
+import org.springframework.web.method.support.HandlerMethodReturnValueHandlerComposite;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerAdapter;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Slf4j
+@Configuration
+public class ExecutionConfig {
+
+    @Bean
+    public RequestExecutor requestExecutor(@Value("${app.execution.mode:blocking}") RequestExecutor.Mode mode,
+                                           ThreadPoolExecutor jdbcExecutor,
+                                           EntityManagerFactory entityManagerFactory) {
+        return new RequestExecutor(mode, new DelegatingSecurityContextExecutor(jdbcExecutor), entityManagerFactory);
+    }
+
+    /**
+     * Puts {@link CompletedFutureReturnValueHandler} ahead of Spring's own handlers, which would
+     * otherwise start async processing for the already-complete futures returned in blocking mode.
+     */
+    @Bean
+    public SmartInitializingSingleton completedFutureReturnValues(RequestMappingHandlerAdapter handlerAdapter) {
+        return () -> {
+            List<HandlerMethodReturnValueHandler> defaults = handlerAdapter.getReturnValueHandlers();
+            List<HandlerMethodReturnValueHandler> handlers = new ArrayList<>(defaults.size() + 1);
+            handlers.add(new CompletedFutureReturnValueHandler(
+                    new HandlerMethodReturnValueHandlerComposite().addHandlers(defaults)));
+            handlers.addAll(defaults);
+            handlerAdapter.setReturnValueHandlers(handlers);
+        };
+    }
+
+    /**
+     * Workers for async mode. Sized like the connection pool by default, since every request they
+     * run needs a connection; workers beyond the pool size would only wait in Hikari.
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ThreadPoolExecutor jdbcExecutor(
+            @Value("${app.execution.jdbc-pool-size:${spring.datasource.hikari.maximum-pool-size:10}}") int poolSize,
+            @Value("${spring.datasource.hikari.maximum-pool-size:10}") int connectionPoolSize,
+            @Value("${app.execution.queue-capacity:1000}") int queueCapacity) {
+        if (poolSize > connectionPoolSize) {
+            log.warn("JDBC executor has {} threads but the connection pool only {} connections; "
+                    + "the extra threads wait for connections", poolSize, connectionPoolSize);
+        }
+        AtomicInteger threadSequence = new AtomicInteger();
+        ThreadFactory threadFactory = runnable -> {
+            Thread thread = new Thread(runnable, "jdbc-" + threadSequence.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        return new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), threadFactory, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+}
@@ -0,0 +1,24 @@
+package com.example.demo.config;
+
+import com.example.demo.service.IdempotencyStore;
+import com.example.demo.service.InMemoryIdempotencyStore;
+import com.example.demo.service.JdbcIdempotencyStore;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+@Configuration
+public class IdempotencyConfig {
+
+    @Bean
+    public IdempotencyStore idempotencyStore(@Value("${order.idempotency.store:memory}") IdempotencyStore.Type type,
+                                             @Value("${order.idempotency.ttl-ms:86400000}") long ttlMillis,
+                                             @Value("${order.idempotency.max-size:100000}") int maxSize,
+                                             JdbcTemplate jdbcTemplate) {
+        if (type == IdempotencyStore.Type.JDBC) {
+            return new JdbcIdempotencyStore(jdbcTemplate, ttlMillis);
+        }
+        return new InMemoryIdempotencyStore(maxSize, ttlMillis);
+    }
+}
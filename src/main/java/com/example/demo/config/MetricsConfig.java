@@ -0,0 +1,141 @@
+package com.example.demo.config;
+
+import com.example.demo.logging.LoggingPipelineMetrics;
+import com.example.demo.security.BoundedUserCache;
+import com.example.demo.security.VerifiedTokenCache;
+import com.example.demo.service.ItemCatalog;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * Registers the application's own meters next to the ones Spring Boot provides out of the box
+ * ({@code http.server.requests} per endpoint, {@code spring.data.repository.invocations} per
+ * repository method, {@code hikaricp.connections.*} for the pool and {@code hibernate.*} for the
+ * session factory and its caches). Everything is scraped from {@code /actuator/prometheus}.
+ */
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public TimedJackson2HttpMessageConverter timedJackson2HttpMessageConverter(ObjectMapper objectMapper,
+                                                                               MeterRegistry meterRegistry) {
+        return new TimedJackson2HttpMessageConverter(objectMapper, meterRegistry);
+    }
+
+    /**
+     * The catalog is injected lazily: it depends on a repository, and repositories depend on the
+     * meter registry that applies this binder.
+     */
+    @Bean
+    public MeterBinder itemCatalogMetrics(@Lazy ItemCatalog itemCatalog) {
+        return registry -> {
+            FunctionCounter.builder("ecommerce.catalog.requests", itemCatalog, ItemCatalog::getHitCount)
+                    .description("Item reads served by the catalog")
+                    .tag("result", "hit")
+                    .register(registry);
+            FunctionCounter.builder("ecommerce.catalog.requests", itemCatalog, ItemCatalog::getMissCount)
+                    .description("Item reads served by the catalog")
+                    .tag("result", "miss")
+                    .register(registry);
+            FunctionCounter.builder("ecommerce.catalog.loads", itemCatalog, ItemCatalog::getLoadCount)
+                    .description("Catalog snapshot reloads from the database")
+                    .register(registry);
+        };
+    }
+
+    /**
+     * Hit ratio of every second-level cache region, next to the per-region hit and miss counts of
+     * {@code hibernate.second.level.cache.requests}. Lazy for the same reason as the catalog.
+     */
+    @Bean
+    public MeterBinder secondLevelCacheMetrics(@Lazy EntityManagerFactory entityManagerFactory) {
+        return registry -> {
+            for (String region : SecondLevelCacheConfig.REGIONS) {
+                Gauge.builder("ecommerce.cache.hit-ratio", entityManagerFactory, emf -> hitRatio(emf, region))
+                        .description("Share of second-level cache lookups in the region that were hits")
+                        .tag("region", region)
+                        .register(registry);
+            }
+        };
+    }
+
+    @Bean
+    public MeterBinder verifiedTokenCacheMetrics(VerifiedTokenCache verifiedTokenCache) {
+        return registry -> {
+            FunctionCounter.builder("ecommerce.jwt.verified-cache.requests", verifiedTokenCache, VerifiedTokenCache::getHitCount)
+                    .description("Token lookups in the verified-token cache")
+                    .tag("result", "hit")
+                    .register(registry);
+            FunctionCounter.builder("ecommerce.jwt.verified-cache.requests", verifiedTokenCache, VerifiedTokenCache::getMissCount)
+                    .description("Token lookups in the verified-token cache")
+                    .tag("result", "miss")
+                    .register(registry);
+            FunctionCounter.builder("ecommerce.jwt.verified-cache.evictions", verifiedTokenCache, VerifiedTokenCache::getEvictionCount)
+                    .description("Tokens dropped from the verified-token cache because they expired or it was full")
+                    .register(registry);
+            Gauge.builder("ecommerce.jwt.verified-cache.size", verifiedTokenCache, VerifiedTokenCache::size)
+                    .description("Tokens currently held in the verified-token cache")
+                    .register(registry);
+        };
+    }
+
+    @Bean
+    public MeterBinder userCacheMetrics(BoundedUserCache userCache) {
+        return registry -> {
+            FunctionCounter.builder("ecommerce.login.user-cache.requests", userCache, BoundedUserCache::getHitCount)
+                    .description("User lookups of logins in the user cache")
+                    .tag("result", "hit")
+                    .register(registry);
+            FunctionCounter.builder("ecommerce.login.user-cache.requests", userCache, BoundedUserCache::getMissCount)
+                    .description("User lookups of logins in the user cache")
+                    .tag("result", "miss")
+                    .register(registry);
+            FunctionCounter.builder("ecommerce.login.user-cache.evictions", userCache, BoundedUserCache::getEvictionCount)
+                    .description("Users dropped from the user cache because they expired or it was full")
+                    .register(registry);
+            Gauge.builder("ecommerce.login.user-cache.size", userCache, BoundedUserCache::size)
+                    .description("Users currently held in the user cache")
+                    .register(registry);
+        };
+    }
+
+    @Bean
+    public MeterBinder loggingPipelineMeterBinder(LoggingPipelineMetrics loggingPipelineMetrics) {
+        return registry -> {
+            Gauge.builder("ecommerce.logging.queue.depth", loggingPipelineMetrics, LoggingPipelineMetrics::getQueueDepth)
+                    .description("Log events waiting to be shipped to Splunk")
+                    .register(registry);
+            Gauge.builder("ecommerce.logging.queue.capacity", loggingPipelineMetrics, LoggingPipelineMetrics::getQueueCapacity)
+                    .description("Size of the async log shipping ring buffer")
+                    .register(registry);
+            FunctionCounter.builder("ecommerce.logging.dropped", loggingPipelineMetrics, LoggingPipelineMetrics::getDroppedEvents)
+                    .description("Log events dropped because the ring buffer was full")
+                    .register(registry);
+        };
+    }
+
+    @Bean
+    public MeterBinder passwordHashingExecutorMetrics(ThreadPoolExecutor passwordHashingExecutor) {
+        return new ExecutorServiceMetrics(passwordHashingExecutor, "passwordHashing", Tags.empty());
+    }
+
+    private static double hitRatio(EntityManagerFactory entityManagerFactory, String region) {
+        CacheRegionStatistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics()
+                .getCacheRegionStatistics(region);
+        long lookups = statistics.getHitCount() + statistics.getMissCount();
+        return lookups == 0 ? Double.NaN : (double) statistics.getHitCount() / lookups;
+    }
+}
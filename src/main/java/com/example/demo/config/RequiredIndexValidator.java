@@ -0,0 +1,101 @@
+package com.example.demo.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Fails startup when an index that a hot lookup path relies on is missing from the schema, rather
+ * than letting those lookups silently fall back to table scans.
+ */
+@Slf4j
+@Component
+public class RequiredIndexValidator implements SmartInitializingSingleton {
+
+    static final List<RequiredIndex> REQUIRED_INDEXES = Arrays.asList(
+            new RequiredIndex("user", "username"),
+            new RequiredIndex("item", "name"),
+            new RequiredIndex("user_order", "user_id"),
+            new RequiredIndex("cart_line", "cart_id"),
+            new RequiredIndex("user_order_line", "user_order_id"),
+            new RequiredIndex("idempotency_key", "expires_at")
+    );
+
+    private final DataSource dataSource;
+
+    public RequiredIndexValidator(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        List<RequiredIndex> missing = new ArrayList<>();
+        try (Connection connection = dataSource.getConnection()) {
+            DatabaseMetaData metaData = connection.getMetaData();
+            for (RequiredIndex index : REQUIRED_INDEXES) {
+                if (!hasLeadingIndex(metaData, connection, index)) {
+                    missing.add(index);
+                }
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Could not read index metadata", e);
+        }
+
+        if (!missing.isEmpty()) {
+            throw new IllegalStateException("Required database indexes are missing: " + missing);
+        }
+        log.info("Verified {} required database indexes", REQUIRED_INDEXES.size());
+    }
+
+    private static boolean hasLeadingIndex(DatabaseMetaData metaData, Connection connection, RequiredIndex index)
+            throws SQLException {
+        String table = identifier(metaData, index.table);
+        String column = identifier(metaData, index.column);
+        try (ResultSet indexInfo = metaData.getIndexInfo(connection.getCatalog(), connection.getSchema(), table,
+                false, true)) {
+            while (indexInfo.next()) {
+                if (indexInfo.getShort("ORDINAL_POSITION") == 1
+                        && column.equalsIgnoreCase(indexInfo.getString("COLUMN_NAME"))) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static String identifier(DatabaseMetaData metaData, String name) throws SQLException {
+        if (metaData.storesUpperCaseIdentifiers()) {
+            return name.toUpperCase(Locale.ROOT);
+        }
+        if (metaData.storesLowerCaseIdentifiers()) {
+            return name.toLowerCase(Locale.ROOT);
+        }
+        return name;
+    }
+
+    static final class RequiredIndex {
+
+        private final String table;
+        private final String column;
+
+        RequiredIndex(String table, String column) {
+            this.table = table;
+            this.column = column;
+        }
+
+        @Override
+        public String toString() {
+            return table + "(" + column + ")";
+        }
+    }
+}
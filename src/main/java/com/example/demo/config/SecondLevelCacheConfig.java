@@ -0,0 +1,74 @@
+package com.example.demo.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import javax.cache.spi.CachingProvider;
+import java.net.URI;
+import java.util.Arrays;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Caffeine regions of the Hibernate second-level and query cache. Each region is bounded by
+ * {@code app.cache.<region>.max-size} entries and {@code app.cache.<region>.ttl-ms}; Hibernate
+ * refuses to start when an entity or query names a region that is not created here.
+ */
+@Configuration
+public class SecondLevelCacheConfig {
+
+    /**
+     * Regions named by {@code @Cache} on entities and by cacheable repository queries.
+     */
+    static final List<String> REGIONS = Arrays.asList("item", "user", "user-by-username");
+
+    /**
+     * Hibernate's default regions: query results without a region of their own, and the last
+     * update time of every table that decides whether a cached query result is still valid.
+     */
+    static final String QUERY_RESULTS_REGION = "default-query-results-region";
+    static final String UPDATE_TIMESTAMPS_REGION = "default-update-timestamps-region";
+
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCacheCustomizer(CacheManager hibernateCacheManager) {
+        return properties -> properties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+    }
+
+    /**
+     * A cache manager of its own for every application context, so that contexts sharing a JVM
+     * (tests, benchmarks) do not share regions.
+     */
+    @Bean(destroyMethod = "close")
+    public CacheManager hibernateCacheManager(Environment environment) {
+        CachingProvider provider = Caching.getCachingProvider(CaffeineCachingProvider.class.getName());
+        CacheManager cacheManager = provider.getCacheManager(
+                URI.create("ecommerce-hibernate-" + UUID.randomUUID()), getClass().getClassLoader());
+        for (String region : REGIONS) {
+            cacheManager.createCache(region, region(
+                    environment.getProperty("app.cache." + region + ".max-size", Long.class, 10_000L),
+                    environment.getProperty("app.cache." + region + ".ttl-ms", Long.class, 600_000L)));
+        }
+        cacheManager.createCache(QUERY_RESULTS_REGION, region(
+                environment.getProperty("app.cache.query-results.max-size", Long.class, 10_000L),
+                environment.getProperty("app.cache.query-results.ttl-ms", Long.class, 600_000L)));
+        // must outlive every cached query result, so neither bounded nor expiring
+        cacheManager.createCache(UPDATE_TIMESTAMPS_REGION, new CaffeineConfiguration<>());
+        return cacheManager;
+    }
+
+    private static CaffeineConfiguration<Object, Object> region(long maxSize, long ttlMillis) {
+        CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+        configuration.setMaximumSize(OptionalLong.of(maxSize));
+        configuration.setExpireAfterWrite(OptionalLong.of(TimeUnit.MILLISECONDS.toNanos(ttlMillis)));
+        return configuration;
+    }
+}
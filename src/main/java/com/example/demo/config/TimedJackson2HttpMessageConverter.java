@@ -0,0 +1,51 @@
+package com.example.demo.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson converter that records how long it takes to write each response body, tagged with the
+ * simple name of the serialized type, in the {@code ecommerce.json.serialization} timer. The timer of
+ * each type is looked up once and kept, so a write costs a map lookup rather than a registry lookup.
+ */
+public class TimedJackson2HttpMessageConverter extends MappingJackson2HttpMessageConverter {
+
+    static final String TIMER_NAME = "ecommerce.json.serialization";
+
+    private final MeterRegistry meterRegistry;
+    private final ConcurrentMap<Class<?>, Timer> timers = new ConcurrentHashMap<>();
+
+    public TimedJackson2HttpMessageConverter(ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        super(objectMapper);
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    protected void writeInternal(Object object, Type type, HttpOutputMessage outputMessage)
+            throws IOException, HttpMessageNotWritableException {
+        long start = System.nanoTime();
+        try {
+            super.writeInternal(object, type, outputMessage);
+        } finally {
+            timers.computeIfAbsent(object == null ? Void.class : object.getClass(), this::timer)
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private Timer timer(Class<?> type) {
+        return Timer.builder(TIMER_NAME)
+                .description("Serialization of response bodies to JSON")
+                .tag("type", type == Void.class ? "null" : type.getSimpleName())
+                .register(meterRegistry);
+    }
+}
@@ -1,11 +1,17 @@
 package com.example.demo.controllers;
 
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import java.util.stream.IntStream;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
@@ -13,73 +19,178 @@ import org.springframework.web.bind.annotation.RestController;
 
 import com.example.demo.model.persistence.Cart;
 import com.example.demo.model.persistence.Item;
-import com.example.demo.model.persistence.User;
-import com.example.demo.model.persistence.repositories.CartRepository;
-import com.example.demo.model.persistence.repositories.ItemRepository;
-import com.example.demo.model.persistence.repositories.UserRepository;
+import com.example.demo.model.requests.CartOperation;
+import com.example.demo.model.requests.ModifyCartBatchRequest;
 import com.example.demo.model.requests.ModifyCartRequest;
+import com.example.demo.security.UserPrincipal;
+import com.example.demo.service.CartWriteCoalescer;
+import com.example.demo.service.ItemCatalog;
+import com.example.demo.service.RequestExecutor;
 
 @Slf4j
 @RestController
 @RequestMapping("/api/cart")
 public class CartController {
 
-    private final UserRepository userRepository;
-    private final CartRepository cartRepository;
-    private final ItemRepository itemRepository;
+    static final int MAX_BATCH_OPERATIONS = 500;
+    static final int MAX_QUANTITY = 10_000;
 
-    public CartController(UserRepository userRepository, CartRepository cartRepository, ItemRepository itemRepository) {
-        this.userRepository = userRepository;
-        this.cartRepository = cartRepository;
-        this.itemRepository = itemRepository;
+    private final ItemCatalog itemCatalog;
+    private final CartWriteCoalescer cartWriteCoalescer;
+    private final RequestExecutor requestExecutor;
+
+    public CartController(ItemCatalog itemCatalog, CartWriteCoalescer cartWriteCoalescer,
+                          RequestExecutor requestExecutor) {
+        this.itemCatalog = itemCatalog;
+        this.cartWriteCoalescer = cartWriteCoalescer;
+        this.requestExecutor = requestExecutor;
     }
 
+    /**
+     * Adds to the cart of the authenticated user. A {@code username} in the request body is optional;
+     * naming any other user is answered with 403, as for the other cart endpoints.
+     */
     @PostMapping("/addToCart")
-    public ResponseEntity<Cart> addToCart(@RequestBody ModifyCartRequest request) {
-        log.debug("Start of method addToCart, params: request - {}", request);
+    public CompletableFuture<ResponseEntity<Cart>> addToCart(@AuthenticationPrincipal UserPrincipal principal,
+                                                             @RequestBody ModifyCartRequest request) {
+        return requestExecutor.submit(() -> addItem(principal, request));
+    }
+
+    @PostMapping("/removeFromCart")
+    public CompletableFuture<ResponseEntity<Cart>> removeFromCart(@AuthenticationPrincipal UserPrincipal principal,
+                                                                  @RequestBody ModifyCartRequest request) {
+        return requestExecutor.submit(() -> removeItem(principal, request));
+    }
+
+    /**
+     * Applies a list of (itemId, delta) operations with one item lookup and one cart write. The
+     * whole batch is rejected if any operation has no item id, any item does not exist or any delta
+     * exceeds {@value #MAX_QUANTITY} units either way. As for the single-item endpoints, a write
+     * that keeps losing to concurrent updates of the same cart is answered with 409.
+     */
+    @PostMapping("/modifyCart")
+    public CompletableFuture<ResponseEntity<Cart>> modifyCart(@AuthenticationPrincipal UserPrincipal principal,
+                                                              @RequestBody ModifyCartBatchRequest request) {
+        return requestExecutor.submit(() -> applyBatch(principal, request));
+    }
 
-        User user = userRepository.findByUsername(request.getUsername());
-        if (user == null) {
-            log.error("Could not find user with username {}", request.getUsername());
+    private ResponseEntity<Cart> applyBatch(UserPrincipal principal, ModifyCartBatchRequest request) {
+        log.debug("Start of method modifyCart, params: request - {}", request);
+
+        if (!principal.matches(request.getUsername())) {
+            log.error("Rejecting modifyCart of user {} for username {}", principal.getUsername(), request.getUsername());
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+
+        if (request.getOperations() == null || request.getOperations().isEmpty()
+                || request.getOperations().size() > MAX_BATCH_OPERATIONS) {
+            log.error("Rejecting modifyCart for username {} with {} operations", principal.getUsername(),
+                    request.getOperations() == null ? 0 : request.getOperations().size());
+            return ResponseEntity.badRequest().build();
+        }
+
+        Set<Long> itemIds = new LinkedHashSet<>();
+        for (CartOperation operation : request.getOperations()) {
+            if (operation == null || operation.getItemId() == null) {
+                log.error("Rejecting modifyCart for username {} with an operation without item id",
+                        principal.getUsername());
+                return ResponseEntity.badRequest().build();
+            }
+            if (operation.getDelta() > MAX_QUANTITY || operation.getDelta() < -MAX_QUANTITY) {
+                log.error("Rejecting modifyCart for username {} with a delta of {}", principal.getUsername(),
+                        operation.getDelta());
+                return ResponseEntity.badRequest().build();
+            }
+            itemIds.add(operation.getItemId());
+        }
+        Map<Long, Item> items = itemCatalog.findAllById(itemIds);
+        if (items.size() < itemIds.size()) {
+            itemIds.removeAll(items.keySet());
+            log.error("Could not find items with Ids {}", itemIds);
             return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
         }
-        Cart cart = user.getCart();
 
-        Optional<Item> item = itemRepository.findById(request.getItemId());
+        Cart cart = apply(principal, request.getOperations(), items);
+        if (cart == null) {
+            log.error("Could not find cart of username {}", principal.getUsername());
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+        }
+
+        log.debug("End of method modifyCart, value returned - {}", cart);
+        return ResponseEntity.ok(cart);
+    }
+
+    private ResponseEntity<Cart> addItem(UserPrincipal principal, ModifyCartRequest request) {
+        log.debug("Start of method addToCart, params: request - {}", request);
+
+        if (!principal.matches(request.getUsername())) {
+            log.error("Rejecting addToCart of user {} for username {}", principal.getUsername(), request.getUsername());
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        if (request.getQuantity() > MAX_QUANTITY) {
+            log.error("Rejecting addToCart for username {} with quantity {}", principal.getUsername(),
+                    request.getQuantity());
+            return ResponseEntity.badRequest().build();
+        }
+
+        Optional<Item> item = itemCatalog.findById(request.getItemId());
         if (!item.isPresent()) {
             log.error("Could not find item with Id {}", request.getItemId());
             return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
         }
 
-        IntStream.range(0, request.getQuantity())
-                .forEach(i -> cart.addItem(item.get()));
-        cartRepository.save(cart);
+        Cart cart = apply(principal,
+                new CartOperation(request.getItemId(), Math.max(request.getQuantity(), 0)), item.get());
+        if (cart == null) {
+            log.error("Could not find cart of username {}", principal.getUsername());
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+        }
 
         log.debug("End of method addToCart, value returned - {}", cart);
         return ResponseEntity.ok(cart);
     }
 
-    @PostMapping("/removeFromCart")
-    public ResponseEntity<Cart> removeFromCart(@RequestBody ModifyCartRequest request) {
+    private ResponseEntity<Cart> removeItem(UserPrincipal principal, ModifyCartRequest request) {
 		log.debug("Beginning of method removeFromCart, params: request - {}", request);
 
-        User user = userRepository.findByUsername(request.getUsername());
-        if (user == null) {
-			log.error("Could not find user with username {}", request.getUsername());
-            return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+        if (!principal.matches(request.getUsername())) {
+            log.error("Rejecting removeFromCart of user {} for username {}", principal.getUsername(),
+                    request.getUsername());
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        if (request.getQuantity() > MAX_QUANTITY) {
+            log.error("Rejecting removeFromCart for username {} with quantity {}", principal.getUsername(),
+                    request.getQuantity());
+            return ResponseEntity.badRequest().build();
         }
 
-        Optional<Item> item = itemRepository.findById(request.getItemId());
+        Optional<Item> item = itemCatalog.findById(request.getItemId());
         if (!item.isPresent()) {
 			log.error("Could not find item with Id {}", request.getItemId());
             return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
         }
 
-        Cart cart = user.getCart();
-        IntStream.range(0, request.getQuantity())
-                .forEach(i -> cart.removeItem(item.get()));
-        cartRepository.save(cart);
+        Cart cart = apply(principal,
+                new CartOperation(request.getItemId(), -Math.max(request.getQuantity(), 0)), item.get());
+        if (cart == null) {
+			log.error("Could not find cart of username {}", principal.getUsername());
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+        }
         return ResponseEntity.ok(cart);
     }
 
+    private Cart apply(UserPrincipal principal, CartOperation operation, Item item) {
+        return apply(principal, Collections.singletonList(operation), Collections.singletonMap(item.getId(), item));
+    }
+
+    /**
+     * @return the cart after the write, or {@code null} if the user has no cart
+     */
+    private Cart apply(UserPrincipal principal, List<CartOperation> operations, Map<Long, Item> items) {
+        if (principal.getCartId() == null) {
+            return null;
+        }
+        return cartWriteCoalescer.apply(principal.getCartId(), operations, items);
+    }
+
 }
@@ -3,39 +3,67 @@ package com.example.demo.controllers;
 import java.util.List;
 
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import com.example.demo.model.persistence.Item;
-import com.example.demo.model.persistence.repositories.ItemRepository;
+import com.example.demo.model.responses.ItemPage;
+import com.example.demo.service.ItemCatalog;
+import com.example.demo.service.ItemStreamer;
 
 @Slf4j
 @RestController
 @RequestMapping("/api/item")
 public class ItemController {
 
-    private final ItemRepository itemRepository;
+    static final int MAX_PAGE_SIZE = 500;
 
-	public ItemController(ItemRepository itemRepository) {
-		this.itemRepository = itemRepository;
+    private final ItemCatalog itemCatalog;
+    private final ItemStreamer itemStreamer;
+
+	public ItemController(ItemCatalog itemCatalog, ItemStreamer itemStreamer) {
+		this.itemCatalog = itemCatalog;
+		this.itemStreamer = itemStreamer;
 	}
 
 	@GetMapping
     public ResponseEntity<List<Item>> getItems() {
-        return ResponseEntity.ok(itemRepository.findAll());
+        return ResponseEntity.ok(itemCatalog.findAll());
+    }
+
+    @GetMapping("/page")
+    public ResponseEntity<ItemPage> getItemsPage(@RequestParam(defaultValue = "0") long after,
+                                                 @RequestParam(defaultValue = "50") int size) {
+        if (size < 1) {
+            return ResponseEntity.badRequest().build();
+        }
+        int pageSize = Math.min(size, MAX_PAGE_SIZE);
+        List<Item> items = itemCatalog.findPage(after, pageSize);
+        Long nextCursor = items.size() < pageSize ? null : items.get(items.size() - 1).getId();
+        return ResponseEntity.ok(new ItemPage(items, nextCursor));
+    }
+
+    @GetMapping("/stream")
+    public ResponseEntity<StreamingResponseBody> streamItems() {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(itemStreamer::writeAll);
     }
 
     @GetMapping("/{id}")
     public ResponseEntity<Item> getItemById(@PathVariable Long id) {
-        return ResponseEntity.of(itemRepository.findById(id));
+        return ResponseEntity.of(itemCatalog.findById(id));
     }
 
     @GetMapping("/name/{name}")
     public ResponseEntity<List<Item>> getItemsByName(@PathVariable String name) {
-        List<Item> items = itemRepository.findByName(name);
+        List<Item> items = itemCatalog.findByName(name);
         return items == null || items.isEmpty() ? ResponseEntity.notFound().build()
                 : ResponseEntity.ok(items);
 
@@ -1,53 +1,134 @@
 package com.example.demo.controllers;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
-import com.example.demo.model.persistence.User;
 import com.example.demo.model.persistence.UserOrder;
 import com.example.demo.model.persistence.repositories.OrderRepository;
-import com.example.demo.model.persistence.repositories.UserRepository;
+import com.example.demo.model.responses.OrderPage;
+import com.example.demo.model.responses.OrderSummary;
+import com.example.demo.security.UserPrincipal;
+import com.example.demo.service.IdempotencyStore;
+import com.example.demo.service.OrderService;
+import com.example.demo.service.RequestExecutor;
 
 @Slf4j
 @RestController
 @RequestMapping("/api/order")
 public class OrderController {
 
-	private final UserRepository userRepository;
+	static final int MAX_HISTORY_PAGE_SIZE = 100;
+	static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+	static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
 	private final OrderRepository orderRepository;
+	private final OrderService orderService;
+	private final RequestExecutor requestExecutor;
 
-	public OrderController(UserRepository userRepository, OrderRepository orderRepository) {
-		this.userRepository = userRepository;
+	public OrderController(OrderRepository orderRepository, OrderService orderService,
+			RequestExecutor requestExecutor) {
 		this.orderRepository = orderRepository;
+		this.orderService = orderService;
+		this.requestExecutor = requestExecutor;
 	}
 
+	/**
+	 * Places an order from the user's cart. A retry that repeats the {@code Idempotency-Key} header of
+	 * an earlier submission gets the order created back then, with status 200 and
+	 * {@code Idempotent-Replayed: true}, instead of a second order. Every order endpoint answers 403
+	 * when {@code username} is not the authenticated user.
+	 */
 	@PostMapping("/submit/{username}")
-	public ResponseEntity<UserOrder> submitOrder(@PathVariable String username) {
-		User user = userRepository.findByUsername(username);
-		if(user == null) {
-			log.error("Could not find user with username {}", username);
+	public CompletableFuture<ResponseEntity<UserOrder>> submitOrder(@AuthenticationPrincipal UserPrincipal principal,
+			@PathVariable String username,
+			@RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
+		return requestExecutor.submit(() -> submit(principal, username, idempotencyKey));
+	}
+
+	@GetMapping("/history/{username}")
+	public CompletableFuture<ResponseEntity<List<UserOrder>>> getOrdersForUser(
+			@AuthenticationPrincipal UserPrincipal principal, @PathVariable String username) {
+		return requestExecutor.submit(() -> history(principal, username));
+	}
+
+	/**
+	 * Keyset-paginated order history, newest first. Pass the returned {@code nextCursor} as
+	 * {@code before} to read the next page; {@code summary=true} returns only order ids and totals.
+	 */
+	@GetMapping("/history/{username}/page")
+	public CompletableFuture<ResponseEntity<OrderPage<?>>> getOrderHistoryPage(
+			@AuthenticationPrincipal UserPrincipal principal, @PathVariable String username,
+			@RequestParam(required = false) Long before,
+			@RequestParam(defaultValue = "${order.history.page-size:20}") int size,
+			@RequestParam(defaultValue = "false") boolean summary) {
+		return requestExecutor.submit(() -> historyPage(principal, username, before, size, summary));
+	}
+
+	private ResponseEntity<UserOrder> submit(UserPrincipal principal, String username, String idempotencyKey) {
+		if(!principal.matches(username)) {
+			log.error("Rejecting order submission of user {} for username {}", principal.getUsername(), username);
+			return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+		}
+		if(idempotencyKey != null
+				&& (idempotencyKey.isEmpty() || idempotencyKey.length() > IdempotencyStore.MAX_KEY_LENGTH)) {
+			log.error("Rejecting order submission for username {} with an idempotency key of {} characters",
+					username, idempotencyKey.length());
+			return ResponseEntity.badRequest().build();
+		}
+		OrderService.Submission submission = principal.getCartId() == null ? null
+				: orderService.submit(username, principal.getCartId(), idempotencyKey);
+		if(submission == null) {
+			log.error("Could not find cart of username {}", username);
 			return ResponseEntity.notFound().build();
 		}
-		UserOrder order = UserOrder.createFromCart(user.getCart());
-		order = orderRepository.save(order);
-		return ResponseEntity.status(HttpStatus.CREATED).body(order);
+		if(submission.isReplayed()) {
+			log.info("Replaying order {} for username {}", submission.getOrder().getId(), username);
+			return ResponseEntity.ok().header(REPLAYED_HEADER, "true").body(submission.getOrder());
+		}
+		return ResponseEntity.status(HttpStatus.CREATED).body(submission.getOrder());
 	}
 	
-	@GetMapping("/history/{username}")
-	public ResponseEntity<List<UserOrder>> getOrdersForUser(@PathVariable String username) {
-		User user = userRepository.findByUsername(username);
-		if(user == null) {
-			log.error("Could not find user with username {}", username);
-			return ResponseEntity.notFound().build();
+	private ResponseEntity<List<UserOrder>> history(UserPrincipal principal, String username) {
+		if(!principal.matches(username)) {
+			log.error("Rejecting order history of user {} for username {}", principal.getUsername(), username);
+			return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+		}
+		return ResponseEntity.ok(orderRepository.findByUserId(principal.getUserId()));
+	}
+
+	private ResponseEntity<OrderPage<?>> historyPage(UserPrincipal principal, String username, Long before, int size,
+			boolean summary) {
+		if(!principal.matches(username)) {
+			log.error("Rejecting order history of user {} for username {}", principal.getUsername(), username);
+			return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+		}
+		if(size < 1) {
+			return ResponseEntity.badRequest().build();
+		}
+
+		int pageSize = Math.min(size, MAX_HISTORY_PAGE_SIZE);
+		Long cursor = before == null ? Long.MAX_VALUE : before;
+		PageRequest page = PageRequest.of(0, pageSize);
+		if(summary) {
+			List<OrderSummary> orders = orderRepository.findSummaryPageByUserId(principal.getUserId(), cursor, page);
+			Long nextCursor = orders.size() < pageSize ? null : orders.get(orders.size() - 1).getId();
+			return ResponseEntity.ok(new OrderPage<>(orders, nextCursor));
 		}
-		return ResponseEntity.ok(orderRepository.findByUser(user));
+		List<UserOrder> orders = orderRepository.findPageByUserId(principal.getUserId(), cursor, page);
+		Long nextCursor = orders.size() < pageSize ? null : orders.get(orders.size() - 1).getId();
+		return ResponseEntity.ok(new OrderPage<>(orders, nextCursor));
 	}
 }
@@ -3,6 +3,7 @@ package com.example.demo.controllers;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.userdetails.UserCache;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -16,6 +17,9 @@ import com.example.demo.model.persistence.User;
 import com.example.demo.model.persistence.repositories.CartRepository;
 import com.example.demo.model.persistence.repositories.UserRepository;
 import com.example.demo.model.requests.CreateUserRequest;
+import com.example.demo.service.RequestExecutor;
+
+import java.util.concurrent.CompletableFuture;
 
 @Slf4j
 @RestController
@@ -25,28 +29,40 @@ public class UserController {
     private final UserRepository userRepository;
     private final CartRepository cartRepository;
     private final BCryptPasswordEncoder bCryptPasswordEncoder;
+    private final RequestExecutor requestExecutor;
+    private final UserCache userCache;
 
     public UserController(UserRepository userRepository,
                           CartRepository cartRepository,
-                          BCryptPasswordEncoder bCryptPasswordEncoder) {
+                          BCryptPasswordEncoder bCryptPasswordEncoder,
+                          RequestExecutor requestExecutor,
+                          UserCache userCache) {
         this.userRepository = userRepository;
         this.cartRepository = cartRepository;
         this.bCryptPasswordEncoder = bCryptPasswordEncoder;
+        this.requestExecutor = requestExecutor;
+        this.userCache = userCache;
     }
 
     @GetMapping("/id/{id}")
-    public ResponseEntity<User> findById(@PathVariable Long id) {
-        return ResponseEntity.of(userRepository.findById(id));
+    public CompletableFuture<ResponseEntity<User>> findById(@PathVariable Long id) {
+        return requestExecutor.submit(() -> ResponseEntity.of(userRepository.findById(id)));
     }
 
     @GetMapping("/{username}")
-    public ResponseEntity<User> findByUserName(@PathVariable String username) {
-        User user = userRepository.findByUsername(username);
-        return user == null ? ResponseEntity.notFound().build() : ResponseEntity.ok(user);
+    public CompletableFuture<ResponseEntity<User>> findByUserName(@PathVariable String username) {
+        return requestExecutor.submit(() -> {
+            User user = userRepository.findByUsername(username);
+            return user == null ? ResponseEntity.notFound().build() : ResponseEntity.ok(user);
+        });
     }
 
     @PostMapping("/create")
-    public ResponseEntity<User> createUser(@RequestBody CreateUserRequest createUserRequest) {
+    public CompletableFuture<ResponseEntity<User>> createUser(@RequestBody CreateUserRequest createUserRequest) {
+        return requestExecutor.submit(() -> create(createUserRequest));
+    }
+
+    private ResponseEntity<User> create(CreateUserRequest createUserRequest) {
         log.info("Start of method createUser for username - {}", createUserRequest.getUsername());
 
         if (createUserRequest.getPassword().length() < 8) {
@@ -68,6 +84,7 @@ public class UserController {
         user.setPassword(bCryptPasswordEncoder.encode(createUserRequest.getPassword()));
         user.setCart(cart);
         user = userRepository.save(user);
+        userCache.removeUserFromCache(user.getUsername());
 
         log.info("End of method createUser. User created for username - {}, value returned - {}",
                 user.getUsername(), user);
@@ -0,0 +1,53 @@
+package com.example.demo.logging;
+
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.core.async.AsyncQueueFullPolicy;
+import org.apache.logging.log4j.core.async.EventRoute;
+import org.apache.logging.log4j.util.PropertiesUtil;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Decides what happens to a log event when the async appender's ring buffer is full. Events at or
+ * below the {@code log4j2.DiscardThreshold} level are dropped and counted so a slow log sink never
+ * holds up a request thread; more severe events still wait for a free slot.
+ *
+ * <p>Selected through {@code log4j2.AsyncQueueFullPolicy} in {@code log4j2.component.properties}.
+ */
+public class DroppingQueueFullPolicy implements AsyncQueueFullPolicy {
+
+    static final String THRESHOLD_PROPERTY = "log4j2.DiscardThreshold";
+
+    private static final AtomicLong DROPPED = new AtomicLong();
+
+    private final Level threshold;
+
+    public DroppingQueueFullPolicy() {
+        this(Level.toLevel(PropertiesUtil.getProperties().getStringProperty(THRESHOLD_PROPERTY), Level.INFO));
+    }
+
+    DroppingQueueFullPolicy(Level threshold) {
+        this.threshold = threshold;
+    }
+
+    @Override
+    public EventRoute getRoute(long backgroundThreadId, Level level) {
+        if (Thread.currentThread().getId() == backgroundThreadId) {
+            // the dispatcher thread itself is logging, waiting for space would deadlock
+            DROPPED.incrementAndGet();
+            return EventRoute.DISCARD;
+        }
+        if (level.isLessSpecificThan(threshold)) {
+            DROPPED.incrementAndGet();
+            return EventRoute.DISCARD;
+        }
+        return EventRoute.ENQUEUE;
+    }
+
+    /**
+     * Number of events dropped by any async appender since the application started.
+     */
+    public static long getDroppedCount() {
+        return DROPPED.get();
+    }
+}
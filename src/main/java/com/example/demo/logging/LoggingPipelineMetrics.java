@@ -0,0 +1,50 @@
+package com.example.demo.logging;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.core.Appender;
+import org.apache.logging.log4j.core.LoggerContext;
+import org.apache.logging.log4j.core.appender.AsyncAppender;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Exposes the state of the asynchronous log shipping pipeline: how many events are waiting in the
+ * ring buffer and how many were dropped because it was full. The appender is looked up on every
+ * call so the numbers stay correct after Log4j reconfigures itself.
+ */
+@Component
+public class LoggingPipelineMetrics {
+
+    private final LoggerContext loggerContext;
+    private final String appenderName;
+
+    @Autowired
+    public LoggingPipelineMetrics(@Value("${logging.async.appender-name:asyncSplunk}") String appenderName) {
+        this((LoggerContext) LogManager.getContext(false), appenderName);
+    }
+
+    LoggingPipelineMetrics(LoggerContext loggerContext, String appenderName) {
+        this.loggerContext = loggerContext;
+        this.appenderName = appenderName;
+    }
+
+    public int getQueueDepth() {
+        AsyncAppender appender = asyncAppender();
+        return appender == null ? 0 : appender.getQueueSize();
+    }
+
+    public int getQueueCapacity() {
+        AsyncAppender appender = asyncAppender();
+        return appender == null ? 0 : appender.getQueueCapacity();
+    }
+
+    public long getDroppedEvents() {
+        return DroppingQueueFullPolicy.getDroppedCount();
+    }
+
+    private AsyncAppender asyncAppender() {
+        Appender appender = loggerContext.getConfiguration().getAppender(appenderName);
+        return appender instanceof AsyncAppender ? (AsyncAppender) appender : null;
+    }
+}
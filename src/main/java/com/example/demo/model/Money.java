@@ -0,0 +1,24 @@
+package com.example.demo.model;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Conversions between decimal amounts, as stored for item prices and shown in JSON, and the
+ * long minor units (cents) used for cart and order arithmetic.
+ */
+public final class Money {
+
+	private static final int SCALE = 2;
+
+	private Money() {
+	}
+
+	public static long toCents(BigDecimal amount) {
+		return amount.setScale(SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+	}
+
+	public static BigDecimal toDecimal(long cents) {
+		return BigDecimal.valueOf(cents, SCALE);
+	}
+}
@@ -2,24 +2,29 @@ package com.example.demo.model.persistence;
 
 import java.math.BigDecimal;
 import java.util.ArrayList;
-import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
-import java.util.Set;
 
+import javax.persistence.CollectionTable;
 import javax.persistence.Column;
+import javax.persistence.ElementCollection;
 import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
-import javax.persistence.GenerationType;
 import javax.persistence.Id;
-import javax.persistence.ManyToMany;
-import javax.persistence.OneToMany;
+import javax.persistence.JoinColumn;
 import javax.persistence.OneToOne;
 import javax.persistence.Table;
+import javax.persistence.Version;
 
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+
+import com.example.demo.model.Money;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
-import lombok.NoArgsConstructor;
 import lombok.ToString;
 
 @Entity
@@ -28,17 +33,19 @@ import lombok.ToString;
 public class Cart {
 	
 	@Id
-	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	@GeneratedValue(generator = "cart_seq")
+	@GenericGenerator(name = "cart_seq", strategy = PooledSequenceGenerator.NAME,
+			parameters = @Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "cart_seq"))
 	@JsonProperty
 	@Column
 	private Long id;
 	
-	@ManyToMany
+	@ElementCollection
+	@CollectionTable(name = "cart_line", joinColumns = @JoinColumn(name = "cart_id"))
 	@JsonProperty
-	@Column
 	@EqualsAndHashCode.Exclude
 	@ToString.Exclude
-    private List<Item> items;
+    private List<CartLine> lines;
 	
 	@OneToOne(mappedBy = "cart")
 	@JsonProperty
@@ -46,29 +53,90 @@ public class Cart {
 	@ToString.Exclude
     private User user;
 	
-	@Column
-	@JsonProperty
-	private BigDecimal total;
+	@Column(name = "total_cents", nullable = false)
+	@JsonIgnore
+	private long totalCents;
+
+	@Version
+	@Column(nullable = false)
+	@JsonIgnore
+	private long version;
+
+	@JsonProperty("total")
+	public BigDecimal getTotal() {
+		return Money.toDecimal(totalCents);
+	}
+
+	/**
+	 * Recomputes the total from the lines, for callers that changed lines directly.
+	 */
+	public void recalculateTotal() {
+		totalCents = CartLine.totalCents(lines);
+	}
+	
+	/**
+	 * Removes every line, once the cart has been turned into an order.
+	 */
+	public void clear() {
+		if(lines != null) {
+			lines.clear();
+		}
+		totalCents = 0;
+	}
 	
 	public void addItem(Item item) {
-		if(items == null) {
-			items = new ArrayList<>();
+		addItem(item, 1);
+	}
+
+	public void addItem(Item item, int quantity) {
+		if(quantity <= 0) {
+			return;
 		}
-		items.add(item);
-		if(total == null) {
-			total = new BigDecimal(0);
+		if(lines == null) {
+			lines = new ArrayList<>();
 		}
-		total = total.add(item.getPrice());
+		CartLine line = findLine(item);
+		long unitPriceCents = line == null ? Money.toCents(item.getPrice()) : line.getUnitPriceCents();
+		// both sums are checked before anything changes, so an overflow leaves the cart as it was
+		int newQuantity = Math.addExact(line == null ? 0 : line.getQuantity(), quantity);
+		long newTotalCents = Math.addExact(totalCents, Math.multiplyExact(unitPriceCents, (long) quantity));
+		if(line == null) {
+			line = new CartLine(item, 0, unitPriceCents);
+			lines.add(line);
+		}
+		line.setQuantity(newQuantity);
+		totalCents = newTotalCents;
 	}
-	
+
 	public void removeItem(Item item) {
-		if(items == null) {
-			items = new ArrayList<>();
+		removeItem(item, 1);
+	}
+
+	public void removeItem(Item item, int quantity) {
+		if(lines == null) {
+			lines = new ArrayList<>();
+		}
+		Iterator<CartLine> iterator = lines.iterator();
+		while(iterator.hasNext()) {
+			CartLine line = iterator.next();
+			if(line.isFor(item)) {
+				int removed = Math.min(Math.max(quantity, 0), line.getQuantity());
+				line.setQuantity(line.getQuantity() - removed);
+				if(line.getQuantity() == 0) {
+					iterator.remove();
+				}
+				totalCents = Math.subtractExact(totalCents, Math.multiplyExact(line.getUnitPriceCents(), (long) removed));
+				return;
+			}
 		}
-		items.remove(item);
-		if(total == null) {
-			total = new BigDecimal(0);
+	}
+
+	private CartLine findLine(Item item) {
+		for(CartLine line : lines) {
+			if(line.isFor(item)) {
+				return line;
+			}
 		}
-		total = total.subtract(item.getPrice());
+		return null;
 	}
 }
@@ -0,0 +1,73 @@
+package com.example.demo.model.persistence;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+
+import javax.persistence.Column;
+import javax.persistence.Embeddable;
+import javax.persistence.JoinColumn;
+import javax.persistence.ManyToOne;
+
+import com.example.demo.model.Money;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One distinct item in a cart or order together with how many units of it were requested and
+ * the unit price, in cents, captured when the item was first added.
+ */
+@Embeddable
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CartLine {
+
+	@ManyToOne(optional = false)
+	@JoinColumn(name = "item_id", nullable = false)
+	@JsonProperty
+	private Item item;
+
+	@Column(nullable = false)
+	@JsonProperty
+	private int quantity;
+
+	@Column(name = "unit_price_cents", nullable = false)
+	@JsonIgnore
+	private long unitPriceCents;
+
+	public CartLine(CartLine other) {
+		this(other.item, other.quantity, other.unitPriceCents);
+	}
+
+	@JsonProperty("unitPrice")
+	public BigDecimal getUnitPrice() {
+		return Money.toDecimal(unitPriceCents);
+	}
+
+	long getTotalCents() {
+		return Math.multiplyExact(unitPriceCents, quantity);
+	}
+
+	/**
+	 * Sum of unit price times quantity over all lines, in cents.
+	 */
+	public static long totalCents(Collection<CartLine> lines) {
+		long total = 0;
+		if (lines != null) {
+			for (CartLine line : lines) {
+				total = Math.addExact(total, line.getTotalCents());
+			}
+		}
+		return total;
+	}
+
+	boolean isFor(Item other) {
+		if (item.getId() != null && other.getId() != null) {
+			return item.getId().equals(other.getId());
+		}
+		return item.equals(other);
+	}
+}
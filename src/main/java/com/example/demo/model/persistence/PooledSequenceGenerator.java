@@ -0,0 +1,35 @@
+package com.example.demo.model.persistence;
+
+import java.util.Properties;
+
+import org.hibernate.MappingException;
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import org.hibernate.id.enhanced.StandardOptimizerDescriptor;
+import org.hibernate.internal.util.config.ConfigurationHelper;
+import org.hibernate.service.ServiceRegistry;
+import org.hibernate.type.Type;
+
+/**
+ * Sequence ids handed out in blocks by the pooled optimizer, so inserts need no round trip to
+ * learn their key and can be batched. The block size is the {@code ecommerce.id.allocation_size}
+ * JPA property and has to match the increment of the sequences, which Hibernate checks on startup.
+ */
+public class PooledSequenceGenerator extends SequenceStyleGenerator {
+
+	public static final String NAME = "com.example.demo.model.persistence.PooledSequenceGenerator";
+	public static final String ALLOCATION_SIZE = "ecommerce.id.allocation_size";
+
+	static final int DEFAULT_ALLOCATION_SIZE = 50;
+
+	@Override
+	public void configure(Type type, Properties params, ServiceRegistry serviceRegistry) throws MappingException {
+		int allocationSize = ConfigurationHelper.getInt(ALLOCATION_SIZE,
+				serviceRegistry.getService(ConfigurationService.class).getSettings(), DEFAULT_ALLOCATION_SIZE);
+		Properties pooled = new Properties();
+		pooled.putAll(params);
+		pooled.setProperty(INCREMENT_PARAM, Integer.toString(allocationSize));
+		pooled.setProperty(OPT_PARAM, StandardOptimizerDescriptor.POOLED.getExternalName());
+		super.configure(type, pooled, serviceRegistry);
+	}
+}
@@ -5,18 +5,23 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.stream.Collectors;
 
-import javax.persistence.CascadeType;
+import javax.persistence.CollectionTable;
 import javax.persistence.Column;
+import javax.persistence.ElementCollection;
 import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
-import javax.persistence.GenerationType;
 import javax.persistence.Id;
 import javax.persistence.JoinColumn;
-import javax.persistence.JoinTable;
-import javax.persistence.ManyToMany;
 import javax.persistence.ManyToOne;
 import javax.persistence.Table;
 
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+
+import com.example.demo.model.Money;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
@@ -28,17 +33,20 @@ import lombok.ToString;
 public class UserOrder {
 
 	@Id
-	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	@GeneratedValue(generator = "user_order_seq")
+	@GenericGenerator(name = "user_order_seq", strategy = PooledSequenceGenerator.NAME,
+			parameters = @Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "user_order_seq"))
 	@JsonProperty
 	@Column
 	private Long id;
 	
-	@ManyToMany(cascade = CascadeType.ALL)
+	@ElementCollection
+	@BatchSize(size = 100)
+	@CollectionTable(name = "user_order_line", joinColumns = @JoinColumn(name = "user_order_id"))
 	@JsonProperty
-	@Column
 	@EqualsAndHashCode.Exclude
 	@ToString.Exclude
-    private List<Item> items;
+    private List<CartLine> lines;
 	
 	@ManyToOne
 	@JoinColumn(name="user_id", nullable = false, referencedColumnName = "id")
@@ -47,14 +55,22 @@ public class UserOrder {
 	@ToString.Exclude
     private User user;
 	
-	@JsonProperty
-	@Column
-	private BigDecimal total;
+	@Column(name = "total_cents", nullable = false)
+	@JsonIgnore
+	private long totalCents;
+
+	@JsonProperty("total")
+	public BigDecimal getTotal() {
+		return Money.toDecimal(totalCents);
+	}
 
 	public static UserOrder createFromCart(Cart cart) {
 		UserOrder order = new UserOrder();
-		order.setItems(new ArrayList<>(cart.getItems()));
-		order.setTotal(cart.getTotal());
+		List<CartLine> lines = cart.getLines() == null ? new ArrayList<>() : cart.getLines().stream()
+				.map(CartLine::new)
+				.collect(Collectors.toList());
+		order.setLines(lines);
+		order.setTotalCents(CartLine.totalCents(lines));
 		order.setUser(cart.getUser());
 		return order;
 	}
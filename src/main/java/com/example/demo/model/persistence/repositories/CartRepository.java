@@ -1,6 +1,16 @@
 package com.example.demo.model.persistence.repositories;
 
+import java.util.List;
+
+import javax.persistence.LockModeType;
+import javax.persistence.QueryHint;
+
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
 import com.example.demo.model.persistence.Cart;
 import com.example.demo.model.persistence.User;
@@ -9,4 +19,48 @@ import org.springframework.stereotype.Repository;
 @Repository
 public interface CartRepository extends JpaRepository<Cart, Long> {
 	Cart findByUser(User user);
+
+	/**
+	 * Locks the row of the cart until the end of the current transaction.
+	 *
+	 * @return the cart id, or {@code null} if the cart does not exist
+	 */
+	@Lock(LockModeType.PESSIMISTIC_WRITE)
+	@Query("select c.id from Cart c where c.id = :id")
+	Long lockId(@Param("id") Long id);
+
+	/**
+	 * Loads the cart together with its user, its lines and the line items in a single statement,
+	 * looked up by primary key.
+	 */
+	@Query("select c, i from Cart c"
+			+ " left join fetch c.user"
+			+ " left join fetch c.lines l"
+			+ " left join l.item i"
+			+ " where c.id = :id")
+	List<Object[]> findCartRowsById(@Param("id") Long id);
+
+	default Cart findWithLinesById(Long id) {
+		List<Object[]> rows = findCartRowsById(id);
+		return rows.isEmpty() ? null : (Cart) rows.get(0)[0];
+	}
+
+	@Query(value = "select count(*) from cart c where c.total_cents <> "
+			+ "(select coalesce(sum(l.unit_price_cents * l.quantity), 0) from cart_line l where l.cart_id = c.id)",
+			nativeQuery = true)
+	long countTotalMismatches();
+
+	/**
+	 * Recomputes, in one statement, the total of every cart whose total does not match its lines.
+	 * Naming the cart table as the only one touched keeps the second-level cache from being cleared.
+	 */
+	@Modifying
+	@QueryHints(@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_NATIVE_SPACES, value = "cart"))
+	@Query(value = "update cart c set total_cents = "
+			+ "(select coalesce(sum(l.unit_price_cents * l.quantity), 0) from cart_line l where l.cart_id = c.id), "
+			+ "version = version + 1 "
+			+ "where c.total_cents <> "
+			+ "(select coalesce(sum(l.unit_price_cents * l.quantity), 0) from cart_line l where l.cart_id = c.id)",
+			nativeQuery = true)
+	int recomputeMismatchedTotals();
 }
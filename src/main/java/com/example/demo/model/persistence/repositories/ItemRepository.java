@@ -1,8 +1,13 @@
 package com.example.demo.model.persistence.repositories;
 
 import java.util.List;
+import java.util.stream.Stream;
 
+import javax.persistence.QueryHint;
+
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 
 import com.example.demo.model.persistence.Item;
 import org.springframework.stereotype.Repository;
@@ -11,4 +16,12 @@ import org.springframework.stereotype.Repository;
 public interface ItemRepository extends JpaRepository<Item, Long> {
 	public List<Item> findByName(String name);
 
+	/**
+	 * Keyset page: the items with an id greater than {@code id}, in id order.
+	 */
+	public List<Item> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+
+	@QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = "100"))
+	public Stream<Item> streamAllByOrderByIdAsc();
+
 }
@@ -2,13 +2,53 @@ package com.example.demo.model.persistence.repositories;
 
 import java.util.List;
 
+import javax.persistence.QueryHint;
+
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 
-import com.example.demo.model.persistence.User;
 import com.example.demo.model.persistence.UserOrder;
+import com.example.demo.model.responses.OrderSummary;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
 public interface OrderRepository extends JpaRepository<UserOrder, Long> {
-	List<UserOrder> findByUser(User user);
+	List<UserOrder> findByUserId(long userId);
+
+	/**
+	 * Keyset page of the user's orders with an id lower than {@code before}, newest first.
+	 */
+	@Query("select o from UserOrder o where o.user.id = :userId and o.id < :before order by o.id desc")
+	List<UserOrder> findPageByUserId(@Param("userId") long userId, @Param("before") Long before,
+			Pageable pageable);
+
+	@Query("select new com.example.demo.model.responses.OrderSummary(o.id, o.totalCents) from UserOrder o"
+			+ " where o.user.id = :userId and o.id < :before order by o.id desc")
+	List<OrderSummary> findSummaryPageByUserId(@Param("userId") long userId, @Param("before") Long before,
+			Pageable pageable);
+
+	@Query(value = "select count(*) from user_order o where o.total_cents <> "
+			+ "(select coalesce(sum(l.unit_price_cents * l.quantity), 0) from user_order_line l"
+			+ " where l.user_order_id = o.id)",
+			nativeQuery = true)
+	long countTotalMismatches();
+
+	/**
+	 * Recomputes, in one statement, the total of every order whose total does not match its lines.
+	 * Naming the order table as the only one touched keeps the second-level cache from being cleared.
+	 */
+	@Modifying
+	@QueryHints(@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_NATIVE_SPACES, value = "user_order"))
+	@Query(value = "update user_order o set total_cents = "
+			+ "(select coalesce(sum(l.unit_price_cents * l.quantity), 0) from user_order_line l"
+			+ " where l.user_order_id = o.id) "
+			+ "where o.total_cents <> "
+			+ "(select coalesce(sum(l.unit_price_cents * l.quantity), 0) from user_order_line l"
+			+ " where l.user_order_id = o.id)",
+			nativeQuery = true)
+	int recomputeMismatchedTotals();
 }
@@ -1,11 +1,22 @@
 package com.example.demo.model.persistence.repositories;
 
+import javax.persistence.QueryHint;
+
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 
 import com.example.demo.model.persistence.User;
 import org.springframework.stereotype.Repository;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
+	/**
+	 * Cached in the {@code user-by-username} query region; the user itself then comes from the
+	 * {@code user} entity region. Any write to the user table invalidates the cached results.
+	 */
+	@QueryHints({
+			@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_CACHEABLE, value = "true"),
+			@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_CACHE_REGION, value = "user-by-username")
+	})
 	User findByUsername(String username);
 }
@@ -0,0 +1,23 @@
+package com.example.demo.model.requests;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One entry of a {@link ModifyCartBatchRequest}: a positive {@code delta} adds that many units of
+ * the item, a negative one removes them.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CartOperation {
+
+	@JsonProperty
+	private Long itemId;
+
+	@JsonProperty
+	private int delta;
+
+}
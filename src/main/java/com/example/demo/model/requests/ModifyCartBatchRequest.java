@@ -0,0 +1,17 @@
+package com.example.demo.model.requests;
+
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.Data;
+
+@Data
+public class ModifyCartBatchRequest {
+
+	@JsonProperty
+	private String username;
+
+	@JsonProperty
+	private List<CartOperation> operations;
+
+}
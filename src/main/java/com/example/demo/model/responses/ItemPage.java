@@ -0,0 +1,25 @@
+package com.example.demo.model.responses;
+
+import java.util.List;
+
+import com.example.demo.model.persistence.Item;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ItemPage {
+
+	@JsonProperty
+	private List<Item> items;
+
+	/**
+	 * Id to pass as {@code after} to read the next page, or {@code null} on the last page.
+	 */
+	@JsonProperty
+	private Long nextCursor;
+
+}
@@ -0,0 +1,24 @@
+package com.example.demo.model.responses;
+
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderPage<T> {
+
+	@JsonProperty
+	private List<T> orders;
+
+	/**
+	 * Id to pass as {@code before} to read the next (older) page, or {@code null} on the last page.
+	 */
+	@JsonProperty
+	private Long nextCursor;
+
+}
@@ -0,0 +1,26 @@
+package com.example.demo.model.responses;
+
+import java.math.BigDecimal;
+
+import com.example.demo.model.Money;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderSummary {
+
+	@JsonProperty
+	private Long id;
+
+	@JsonProperty
+	private BigDecimal total;
+
+	public OrderSummary(Long id, long totalCents) {
+		this(id, Money.toDecimal(totalCents));
+	}
+
+}
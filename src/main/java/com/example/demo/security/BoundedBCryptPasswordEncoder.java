@@ -0,0 +1,106 @@
+package com.example.demo.security;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * BCrypt encoder that runs the hashing on a dedicated, bounded executor, which bounds the number of
+ * hashes computed at once. The calling thread still waits for its hash, for at most the configured
+ * timeout; callers beyond the executor's queue, or whose hash is not done in time, are turned away
+ * with {@link PasswordHashingUnavailableException}. Keep the queue short and the timeout close to a
+ * few hash durations, so that a saturated executor fails requests fast instead of holding their
+ * threads.
+ *
+ * <p>Every BCrypt hash carries its own cost ({@code $2a$<cost>$...}), so {@link #upgradeEncoding}
+ * reports hashes made with any cost other than the configured one, in either direction, and the
+ * authentication provider rehashes them after a successful login.
+ *
+ * <p>Time spent hashing is recorded by the {@code ecommerce.bcrypt} timer, tagged with the operation.
+ */
+public class BoundedBCryptPasswordEncoder extends BCryptPasswordEncoder {
+
+    private static final Pattern BCRYPT_COST = Pattern.compile("\\A\\$2[aby]?\\$(\\d\\d)\\$[./0-9A-Za-z]{53}");
+
+    private final int strength;
+    private final ExecutorService executor;
+    private final long timeoutMillis;
+    private final Timer encodeTimer;
+    private final Timer matchesTimer;
+
+    public BoundedBCryptPasswordEncoder(int strength, ExecutorService executor, long timeoutMillis,
+                                        MeterRegistry meterRegistry) {
+        super(strength);
+        this.strength = strength;
+        this.executor = executor;
+        this.timeoutMillis = timeoutMillis;
+        this.encodeTimer = hashingTimer(meterRegistry, "encode");
+        this.matchesTimer = hashingTimer(meterRegistry, "matches");
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return call(() -> encodeTimer.recordCallable(() -> super.encode(rawPassword)));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return call(() -> matchesTimer.recordCallable(() -> super.matches(rawPassword, encodedPassword)));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        if (encodedPassword == null) {
+            return false;
+        }
+        Matcher matcher = BCRYPT_COST.matcher(encodedPassword);
+        return matcher.matches() && Integer.parseInt(matcher.group(1)) != strength;
+    }
+
+    public int getStrength() {
+        return strength;
+    }
+
+    private static Timer hashingTimer(MeterRegistry meterRegistry, String operation) {
+        return Timer.builder("ecommerce.bcrypt")
+                .description("BCrypt hashing on the password hashing executor")
+                .tag("operation", operation)
+                .register(meterRegistry);
+    }
+
+    private <T> T call(Callable<T> task) {
+        Future<T> future;
+        try {
+            future = executor.submit(task);
+        } catch (RejectedExecutionException e) {
+            throw new PasswordHashingUnavailableException("Password hashing queue is full", e);
+        }
+
+        try {
+            return future.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            throw new PasswordHashingUnavailableException("Password hashing timed out after " + timeoutMillis + " ms", e);
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new PasswordHashingUnavailableException("Interrupted while waiting for password hashing", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+}
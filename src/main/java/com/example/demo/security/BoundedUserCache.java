@@ -0,0 +1,81 @@
+package com.example.demo.security;
+
+import com.example.demo.cache.BoundedExpiringCache;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserCache;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+
+/**
+ * Keeps the {@link UserDetails} of recent logins so that repeated logins skip the user lookup.
+ * Entries leave after {@code security.user-cache.ttl-ms}, when they are the least recently used
+ * entry of a full cache, or when the user is created or changes password. A login whose password
+ * does not match the cached hash is checked once more against a fresh lookup by
+ * {@link org.springframework.security.authentication.dao.DaoAuthenticationProvider}.
+ */
+@Component
+public class BoundedUserCache implements UserCache {
+
+    private final BoundedExpiringCache<String, UserDetails> cache;
+    private final long ttlMillis;
+    private final Clock clock;
+
+    @Autowired
+    public BoundedUserCache(@Value("${security.user-cache.max-size:10000}") int maxSize,
+                            @Value("${security.user-cache.ttl-ms:300000}") long ttlMillis) {
+        this(maxSize, ttlMillis, Clock.systemUTC());
+    }
+
+    public BoundedUserCache(int maxSize, long ttlMillis, Clock clock) {
+        this.cache = new BoundedExpiringCache<>(maxSize, clock);
+        this.ttlMillis = ttlMillis;
+        this.clock = clock;
+    }
+
+    /**
+     * Returns a copy of the cached user, since the provider erases the password of the user it
+     * authenticated.
+     */
+    @Override
+    public UserDetails getUserFromCache(String username) {
+        UserDetails user = cache.get(username);
+        return user == null ? null : copy(user);
+    }
+
+    @Override
+    public void putUserInCache(UserDetails user) {
+        cache.put(user.getUsername(), copy(user), clock.millis() + ttlMillis);
+    }
+
+    @Override
+    public void removeUserFromCache(String username) {
+        cache.remove(username);
+    }
+
+    public long getHitCount() {
+        return cache.getHitCount();
+    }
+
+    public long getMissCount() {
+        return cache.getMissCount();
+    }
+
+    public long getEvictionCount() {
+        return cache.getEvictionCount();
+    }
+
+    public int size() {
+        return cache.size();
+    }
+
+    private static UserDetails copy(UserDetails user) {
+        if (user instanceof LoginUser) {
+            return new LoginUser(((LoginUser) user).getPrincipal(), user.getPassword());
+        }
+        return User.withUserDetails(user).build();
+    }
+}
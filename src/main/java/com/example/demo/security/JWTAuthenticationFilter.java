@@ -1,6 +1,7 @@
 package com.example.demo.security;
 
 import com.auth0.jwt.JWT;
+import com.auth0.jwt.JWTCreator;
 import com.example.demo.model.persistence.User;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.extern.slf4j.Slf4j;
@@ -43,6 +44,10 @@ public class JWTAuthenticationFilter extends UsernamePasswordAuthenticationFilte
                             new ArrayList<>()
                     )
             );
+        } catch (PasswordHashingUnavailableException e) {
+            log.warn("Rejecting login, password hashing is saturated: {}", e.getMessage());
+            sendServiceUnavailable(res);
+            return null;
         } catch (IOException e) {
             log.error("Exception inside attemptAuthentication!!", e);
             throw new RuntimeException(e);
@@ -54,11 +59,24 @@ public class JWTAuthenticationFilter extends UsernamePasswordAuthenticationFilte
                                             HttpServletResponse res,
                                             FilterChain chain,
                                             Authentication auth) throws IOException, ServletException {
-        String token = JWT
+        UserPrincipal principal = ((LoginUser) auth.getPrincipal()).getPrincipal();
+        JWTCreator.Builder builder = JWT
                 .create()
-                .withSubject(((org.springframework.security.core.userdetails.User) auth.getPrincipal()).getUsername())
-                .withExpiresAt(new Date(System.currentTimeMillis() + SecurityConstants.EXPIRATION_TIME))
-                .sign(HMAC512(SecurityConstants.SECRET.getBytes()));
+                .withSubject(principal.getUsername())
+                .withClaim(SecurityConstants.USER_ID_CLAIM, principal.getUserId())
+                .withExpiresAt(new Date(System.currentTimeMillis() + SecurityConstants.EXPIRATION_TIME));
+        if (principal.getCartId() != null) {
+            builder.withClaim(SecurityConstants.CART_ID_CLAIM, principal.getCartId());
+        }
+        String token = builder.sign(HMAC512(SecurityConstants.SECRET.getBytes()));
         res.addHeader(SecurityConstants.HEADER_STRING, SecurityConstants.TOKEN_PREFIX + token);
     }
+
+    private static void sendServiceUnavailable(HttpServletResponse res) {
+        try {
+            res.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+        } catch (IOException e) {
+            log.error("Exception inside sendServiceUnavailable!!", e);
+        }
+    }
 }
@@ -1,6 +1,6 @@
 package com.example.demo.security;
 
-import com.auth0.jwt.JWT;
+import com.auth0.jwt.interfaces.DecodedJWT;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -14,13 +14,15 @@ import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
 import java.util.ArrayList;
 
-import static com.auth0.jwt.algorithms.Algorithm.HMAC512;
-
 @Component
 public class JWTAuthenticationVerificationFilter extends BasicAuthenticationFilter {
 
-    public JWTAuthenticationVerificationFilter(AuthenticationManager authManager) {
+    private final VerifiedTokenCache verifiedTokenCache;
+
+    public JWTAuthenticationVerificationFilter(AuthenticationManager authManager,
+                                               VerifiedTokenCache verifiedTokenCache) {
         super(authManager);
+        this.verifiedTokenCache = verifiedTokenCache;
     }
 
     @Override
@@ -42,15 +44,26 @@ public class JWTAuthenticationVerificationFilter extends BasicAuthenticationFilt
     private UsernamePasswordAuthenticationToken getAuthentication(HttpServletRequest req) {
         String token = req.getHeader(SecurityConstants.HEADER_STRING);
         if (token != null) {
-            String user = JWT.require(HMAC512(SecurityConstants.SECRET.getBytes())).build()
-                    .verify(token.replace(SecurityConstants.TOKEN_PREFIX, ""))
-                    .getSubject();
-            if (user != null) {
-                return new UsernamePasswordAuthenticationToken(user, null, new ArrayList<>());
+            UserPrincipal principal = toPrincipal(verifiedTokenCache.verify(
+                    token.replace(SecurityConstants.TOKEN_PREFIX, "")));
+            if (principal != null) {
+                return new UsernamePasswordAuthenticationToken(principal, null, new ArrayList<>());
             }
             return null;
         }
         return null;
     }
 
+    /**
+     * Tokens issued before the id claims were added carry no user id and are not accepted; their
+     * holders have to log in again.
+     */
+    private static UserPrincipal toPrincipal(DecodedJWT jwt) {
+        Long userId = jwt.getClaim(SecurityConstants.USER_ID_CLAIM).asLong();
+        if (jwt.getSubject() == null || userId == null) {
+            return null;
+        }
+        return new UserPrincipal(userId, jwt.getSubject(), jwt.getClaim(SecurityConstants.CART_ID_CLAIM).asLong());
+    }
+
 }
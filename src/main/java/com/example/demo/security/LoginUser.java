@@ -0,0 +1,22 @@
+package com.example.demo.security;
+
+import org.springframework.security.core.userdetails.User;
+
+import java.util.Collections;
+
+/**
+ * User details of a login that also carry the ids written into the issued token.
+ */
+public class LoginUser extends User {
+
+    private final UserPrincipal principal;
+
+    public LoginUser(UserPrincipal principal, String password) {
+        super(principal.getUsername(), password, Collections.emptyList());
+        this.principal = principal;
+    }
+
+    public UserPrincipal getPrincipal() {
+        return principal;
+    }
+}
@@ -1,8 +1,8 @@
 package com.example.demo.security;
 
-import java.util.Collections;
-
+import org.springframework.security.core.userdetails.UserCache;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
@@ -11,12 +11,14 @@ import com.example.demo.model.persistence.User;
 import com.example.demo.model.persistence.repositories.UserRepository;
 
 @Service
-public class UserDetailsServiceImpl implements UserDetailsService {
+public class UserDetailsServiceImpl implements UserDetailsService, UserDetailsPasswordService {
 
     private final UserRepository userRepository;
+    private final UserCache userCache;
 
-    public UserDetailsServiceImpl(UserRepository userRepository) {
+    public UserDetailsServiceImpl(UserRepository userRepository, UserCache userCache) {
         this.userRepository = userRepository;
+        this.userCache = userCache;
     }
 
     @Override
@@ -25,8 +27,30 @@ public class UserDetailsServiceImpl implements UserDetailsService {
         if (user == null) {
             throw new UsernameNotFoundException(username);
         }
-        return new org.springframework.security.core.userdetails.User(
-                user.getUsername(), user.getPassword(), Collections.emptyList()
-        );
+        return new LoginUser(principalOf(user), user.getPassword());
+    }
+
+    /**
+     * Called after a successful login whose stored hash was made with a different BCrypt cost than
+     * the configured one; {@code newPassword} is the presented password hashed with the current cost.
+     */
+    @Override
+    public UserDetails updatePassword(UserDetails userDetails, String newPassword) {
+        User user = userRepository.findByUsername(userDetails.getUsername());
+        if (user == null) {
+            throw new UsernameNotFoundException(userDetails.getUsername());
+        }
+        user.setPassword(newPassword);
+        userRepository.save(user);
+        userCache.removeUserFromCache(user.getUsername());
+        return new LoginUser(principalOf(user), newPassword);
+    }
+
+    /**
+     * Reads the cart id from the foreign key; the lazy cart itself is not loaded.
+     */
+    private static UserPrincipal principalOf(User user) {
+        return new UserPrincipal(user.getId(), user.getUsername(),
+                user.getCart() == null ? null : user.getCart().getId());
     }
 }
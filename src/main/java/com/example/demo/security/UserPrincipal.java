@@ -0,0 +1,66 @@
+package com.example.demo.security;
+
+import java.util.Objects;
+
+/**
+ * The authenticated user of a request, read from the claims of its token. Controllers receive it
+ * through {@link org.springframework.security.core.annotation.AuthenticationPrincipal} and use its ids
+ * instead of looking the user up by name.
+ */
+public final class UserPrincipal {
+
+    private final long userId;
+    private final String username;
+    private final Long cartId;
+
+    /**
+     * @param cartId id of the user's cart, {@code null} if the user has none
+     */
+    public UserPrincipal(long userId, String username, Long cartId) {
+        this.userId = userId;
+        this.username = username;
+        this.cartId = cartId;
+    }
+
+    public long getUserId() {
+        return userId;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public Long getCartId() {
+        return cartId;
+    }
+
+    /**
+     * Whether a username sent with the request refers to this user; requests that leave it out act on
+     * behalf of this user.
+     */
+    public boolean matches(String requestedUsername) {
+        return requestedUsername == null || requestedUsername.equals(username);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof UserPrincipal)) {
+            return false;
+        }
+        UserPrincipal that = (UserPrincipal) o;
+        return userId == that.userId && username.equals(that.username) && Objects.equals(cartId, that.cartId);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(userId, username, cartId);
+    }
+
+    @Override
+    public String toString() {
+        return "UserPrincipal(userId=" + userId + ", username=" + username + ", cartId=" + cartId + ")";
+    }
+}
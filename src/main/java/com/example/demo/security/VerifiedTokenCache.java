@@ -0,0 +1,104 @@
+package com.example.demo.security;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.JWTVerifier;
+import com.auth0.jwt.exceptions.JWTVerificationException;
+import com.auth0.jwt.interfaces.DecodedJWT;
+import com.example.demo.cache.BoundedExpiringCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import static com.auth0.jwt.algorithms.Algorithm.HMAC512;
+
+/**
+ * Remembers tokens whose signature has already been checked so the HMAC verification only runs
+ * once per token. Entries are keyed by a SHA-256 hash of the token and leave the cache at the
+ * token's {@code exp} claim or when they are the least recently used entry of a full cache.
+ * The signature checks themselves are recorded by the {@code ecommerce.jwt.verification} timer.
+ */
+@Component
+public class VerifiedTokenCache {
+
+    private static final JWTVerifier VERIFIER = JWT.require(HMAC512(SecurityConstants.SECRET.getBytes())).build();
+
+    private final BoundedExpiringCache<String, DecodedJWT> cache;
+    private final Timer verificationTimer;
+
+    public VerifiedTokenCache(int maxSize) {
+        this(maxSize, new SimpleMeterRegistry());
+    }
+
+    @Autowired
+    public VerifiedTokenCache(@Value("${security.jwt.verified-cache.max-size:10000}") int maxSize,
+                              MeterRegistry meterRegistry) {
+        this.cache = new BoundedExpiringCache<>(maxSize);
+        this.verificationTimer = Timer.builder("ecommerce.jwt.verification")
+                .description("HMAC verification of JWTs that were not in the verified-token cache")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Returns the decoded token, verifying it only when it is not already cached.
+     *
+     * @throws JWTVerificationException if the token is not valid
+     */
+    public DecodedJWT verify(String token) {
+        String key = hash(token);
+        DecodedJWT jwt = cache.get(key);
+        if (jwt != null) {
+            return jwt;
+        }
+
+        jwt = verify(verificationTimer, token);
+        Date expiresAt = jwt.getExpiresAt();
+        if (expiresAt != null) {
+            cache.put(key, jwt, expiresAt.getTime());
+        }
+        return jwt;
+    }
+
+    public long getHitCount() {
+        return cache.getHitCount();
+    }
+
+    public long getMissCount() {
+        return cache.getMissCount();
+    }
+
+    public long getEvictionCount() {
+        return cache.getEvictionCount();
+    }
+
+    public int size() {
+        return cache.size();
+    }
+
+    private static DecodedJWT verify(Timer timer, String token) {
+        long start = System.nanoTime();
+        try {
+            return VERIFIER.verify(token);
+        } finally {
+            timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
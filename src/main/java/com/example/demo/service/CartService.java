@@ -0,0 +1,49 @@
+package com.example.demo.service;
+
+import com.example.demo.model.persistence.Cart;
+import com.example.demo.model.persistence.Item;
+import com.example.demo.model.persistence.repositories.CartRepository;
+import com.example.demo.model.requests.CartOperation;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Map;
+
+@Service
+public class CartService {
+
+    private final CartRepository cartRepository;
+
+    public CartService(CartRepository cartRepository) {
+        this.cartRepository = cartRepository;
+    }
+
+    /**
+     * Applies all operations to the cart in one transaction and writes the cart once. Fails
+     * with a {@link org.springframework.dao.ConcurrencyFailureException} if the cart version changed
+     * underneath or its row lock timed out; callers retry with a fresh transaction.
+     *
+     * @param items every item referenced by {@code operations}, keyed by id
+     * @return the updated cart, or {@code null} if the cart does not exist
+     */
+    @Transactional
+    public Cart applyOperations(long cartId, List<CartOperation> operations, Map<Long, Item> items) {
+        // The version check alone is not enough on H2 1.4: an update racing another transaction's commit
+        // can match the old version and overwrite it, so writers of the same cart queue on its row first.
+        if (cartRepository.lockId(cartId) == null) {
+            return null;
+        }
+
+        Cart cart = cartRepository.findWithLinesById(cartId);
+        for (CartOperation operation : operations) {
+            Item item = items.get(operation.getItemId());
+            if (operation.getDelta() > 0) {
+                cart.addItem(item, operation.getDelta());
+            } else if (operation.getDelta() < 0) {
+                cart.removeItem(item, -operation.getDelta());
+            }
+        }
+        return cartRepository.save(cart);
+    }
+}
@@ -0,0 +1,173 @@
+package com.example.demo.service;
+
+import com.example.demo.model.persistence.Cart;
+import com.example.demo.model.persistence.Item;
+import com.example.demo.model.requests.CartOperation;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Merges operations on the same cart that arrive within {@code cart.update.coalesce-window-ms}
+ * into one cart write. A caller with no other caller on the same cart writes at once. Otherwise the
+ * first waiting caller opens a window, collects the operations of later callers, applies all of them
+ * in arrival order through {@link CartService#applyOperations} and hands the resulting cart to every
+ * caller, so each response includes the caller's own operation. A window of 0 writes every call on
+ * its own. Callers that joined another caller's write wait at most {@code cart.update.coalesce-wait-ms}
+ * for it. The number of operations per write is recorded by the {@code ecommerce.cart.write.operations}
+ * summary.
+ */
+@Component
+public class CartWriteCoalescer {
+
+    private final CartService cartService;
+    private final OptimisticRetry optimisticRetry;
+    private final long windowMillis;
+    private final long waitMillis;
+    private final DistributionSummary operationsPerWrite;
+    private final ConcurrentMap<Long, PendingWrite> pending = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Long, Integer> callers = new ConcurrentHashMap<>();
+
+    public CartWriteCoalescer(CartService cartService, OptimisticRetry optimisticRetry, long windowMillis,
+                              long waitMillis) {
+        this(cartService, optimisticRetry, windowMillis, waitMillis, new SimpleMeterRegistry());
+    }
+
+    @Autowired
+    public CartWriteCoalescer(CartService cartService, OptimisticRetry optimisticRetry,
+                              @Value("${cart.update.coalesce-window-ms:10}") long windowMillis,
+                              @Value("${cart.update.coalesce-wait-ms:5000}") long waitMillis,
+                              MeterRegistry meterRegistry) {
+        this.cartService = cartService;
+        this.optimisticRetry = optimisticRetry;
+        this.windowMillis = windowMillis;
+        this.waitMillis = waitMillis;
+        this.operationsPerWrite = DistributionSummary.builder("ecommerce.cart.write.operations")
+                .description("Cart operations applied by one coalesced cart write")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Applies {@code operations} to the cart, possibly in the same write as operations of
+     * concurrent callers.
+     *
+     * @param items every item referenced by {@code operations}, keyed by id
+     * @return the cart after the write, or {@code null} if the cart does not exist
+     * @throws UpdateConflictException when the write kept losing to concurrent updates
+     * @throws ResponseStatusException with 503 when the joined write did not finish in time; its
+     *                                 operations may still be applied
+     */
+    public Cart apply(long cartId, List<CartOperation> operations, Map<Long, Item> items) {
+        if (windowMillis <= 0) {
+            return write(cartId, operations, items);
+        }
+
+        int concurrent = callers.merge(cartId, 1, Integer::sum);
+        try {
+            if (concurrent == 1) {
+                // nobody else is editing this cart, so there is nothing to wait for
+                return write(cartId, operations, items);
+            }
+
+            // join the cart's open write, or start a new one if there is none or it is already closed
+            PendingWrite own = new PendingWrite(operations, items);
+            PendingWrite write = pending.merge(cartId, own,
+                    (current, fresh) -> current.add(operations, items) ? current : fresh);
+            if (write != own) {
+                return write.await(waitMillis);
+            }
+            return flushAfterWindow(cartId, own);
+        } finally {
+            callers.computeIfPresent(cartId, (id, count) -> count == 1 ? null : count - 1);
+        }
+    }
+
+    private Cart flushAfterWindow(long cartId, PendingWrite write) {
+        try {
+            Thread.sleep(windowMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        write.close();
+        pending.remove(cartId, write);
+
+        try {
+            Cart cart = write(cartId, write.operations, write.items);
+            write.result.complete(cart);
+            return cart;
+        } catch (Throwable e) {
+            // whatever went wrong, the callers that joined this write must not be left waiting
+            write.result.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private Cart write(long cartId, List<CartOperation> operations, Map<Long, Item> items) {
+        operationsPerWrite.record(operations.size());
+        return optimisticRetry.execute(() -> cartService.applyOperations(cartId, operations, items));
+    }
+
+    /**
+     * Operations collected for one cart write. Callers can join until the write is closed.
+     */
+    private static final class PendingWrite {
+
+        private final List<CartOperation> operations = new ArrayList<>();
+        private final Map<Long, Item> items = new HashMap<>();
+        private final CompletableFuture<Cart> result = new CompletableFuture<>();
+        private boolean closed;
+
+        PendingWrite(List<CartOperation> operations, Map<Long, Item> items) {
+            this.operations.addAll(operations);
+            this.items.putAll(items);
+        }
+
+        synchronized boolean add(List<CartOperation> operations, Map<Long, Item> items) {
+            if (closed) {
+                return false;
+            }
+            this.operations.addAll(operations);
+            this.items.putAll(items);
+            return true;
+        }
+
+        synchronized void close() {
+            closed = true;
+        }
+
+        Cart await(long timeoutMillis) {
+            try {
+                return result.get(timeoutMillis, TimeUnit.MILLISECONDS);
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                }
+                if (e.getCause() instanceof Error) {
+                    throw (Error) e.getCause();
+                }
+                throw new IllegalStateException(e.getCause());
+            } catch (TimeoutException e) {
+                throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Cart write did not finish in time", e);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Interrupted waiting for cart write", e);
+            }
+        }
+    }
+}
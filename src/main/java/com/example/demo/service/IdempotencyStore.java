@@ -0,0 +1,26 @@
+package com.example.demo.service;
+
+/**
+ * Remembers which order a client-supplied idempotency key produced, so that a retried submission
+ * returns that order instead of creating another one. Keys are scoped to the user and expire after
+ * a fixed time.
+ */
+public interface IdempotencyStore {
+
+    enum Type {
+        MEMORY,
+        JDBC
+    }
+
+    /**
+     * Longest accepted key, in characters.
+     */
+    int MAX_KEY_LENGTH = 255;
+
+    /**
+     * @return the id of the order created for the key, or {@code null} if the key is unknown or expired
+     */
+    Long find(String username, String key);
+
+    void put(String username, String key, long orderId);
+}
@@ -0,0 +1,38 @@
+package com.example.demo.service;
+
+import com.example.demo.cache.BoundedExpiringCache;
+
+import java.time.Clock;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Keeps idempotency keys in a {@link BoundedExpiringCache}. Keys are lost on restart and not shared
+ * between instances; once the cache is full the least recently used key is forgotten first.
+ */
+public class InMemoryIdempotencyStore implements IdempotencyStore {
+
+    private final BoundedExpiringCache<List<String>, Long> cache;
+    private final long ttlMillis;
+    private final Clock clock;
+
+    public InMemoryIdempotencyStore(int maxSize, long ttlMillis) {
+        this(maxSize, ttlMillis, Clock.systemUTC());
+    }
+
+    public InMemoryIdempotencyStore(int maxSize, long ttlMillis, Clock clock) {
+        this.cache = new BoundedExpiringCache<>(maxSize, clock);
+        this.ttlMillis = ttlMillis;
+        this.clock = clock;
+    }
+
+    @Override
+    public Long find(String username, String key) {
+        return cache.get(Arrays.asList(username, key));
+    }
+
+    @Override
+    public void put(String username, String key, long orderId) {
+        cache.put(Arrays.asList(username, key), orderId, clock.millis() + ttlMillis);
+    }
+}
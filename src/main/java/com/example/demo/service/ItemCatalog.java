@@ -0,0 +1,239 @@
+package com.example.demo.service;
+
+import com.example.demo.model.persistence.Item;
+import com.example.demo.model.persistence.repositories.ItemRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Read-through cache in front of {@link ItemRepository}. The whole catalog is loaded into an
+ * immutable snapshot indexed by id and by name, so steady-state reads never touch the database.
+ * The snapshot is reloaded once its TTL has passed or after {@link #invalidate()}; a catalog
+ * larger than the configured maximum size is not cached and reads go straight to the repository.
+ */
+@Slf4j
+@Component
+public class ItemCatalog {
+
+    private final ItemRepository itemRepository;
+    private final int maxSize;
+    private final long ttlMillis;
+    private final Clock clock;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong loads = new AtomicLong();
+
+    private volatile Snapshot snapshot;
+
+    @Autowired
+    public ItemCatalog(ItemRepository itemRepository,
+                       @Value("${catalog.cache.max-size:10000}") int maxSize,
+                       @Value("${catalog.cache.ttl-ms:300000}") long ttlMillis) {
+        this(itemRepository, maxSize, ttlMillis, Clock.systemUTC());
+    }
+
+    ItemCatalog(ItemRepository itemRepository, int maxSize, long ttlMillis, Clock clock) {
+        this.itemRepository = itemRepository;
+        this.maxSize = maxSize;
+        this.ttlMillis = ttlMillis;
+        this.clock = clock;
+    }
+
+    /**
+     * Returns every item ordered by id.
+     */
+    public List<Item> findAll() {
+        Snapshot current = current();
+        if (current.cached) {
+            hits.incrementAndGet();
+            return current.items;
+        }
+        misses.incrementAndGet();
+        return itemRepository.findAll(Sort.by("id"));
+    }
+
+    public Optional<Item> findById(Long id) {
+        Snapshot current = current();
+        if (current.cached) {
+            hits.incrementAndGet();
+            return Optional.ofNullable(current.byId.get(id));
+        }
+        misses.incrementAndGet();
+        return itemRepository.findById(id);
+    }
+
+    /**
+     * Resolves the given ids in one pass, from the snapshot or with a single {@code findAllById}.
+     * Ids that do not exist are missing from the returned map.
+     */
+    public Map<Long, Item> findAllById(Collection<Long> ids) {
+        Snapshot current = current();
+        Map<Long, Item> found = new HashMap<>();
+        if (current.cached) {
+            hits.incrementAndGet();
+            for (Long id : ids) {
+                Item item = current.byId.get(id);
+                if (item != null) {
+                    found.put(id, item);
+                }
+            }
+            return found;
+        }
+        misses.incrementAndGet();
+        for (Item item : itemRepository.findAllById(ids)) {
+            found.put(item.getId(), item);
+        }
+        return found;
+    }
+
+    public List<Item> findByName(String name) {
+        Snapshot current = current();
+        if (current.cached) {
+            hits.incrementAndGet();
+            return current.byName.getOrDefault(name, Collections.emptyList());
+        }
+        misses.incrementAndGet();
+        return itemRepository.findByName(name);
+    }
+
+    /**
+     * Returns up to {@code size} items with an id greater than {@code afterId}, in id order.
+     */
+    public List<Item> findPage(long afterId, int size) {
+        Snapshot current = current();
+        if (current.cached) {
+            hits.incrementAndGet();
+            int from = current.indexAfter(afterId);
+            return current.items.subList(from, Math.min(from + size, current.items.size()));
+        }
+        misses.incrementAndGet();
+        return itemRepository.findByIdGreaterThanOrderByIdAsc(afterId, PageRequest.of(0, size));
+    }
+
+    /**
+     * Loads the catalog once the application is up so the first requests do not pay for it.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        current();
+    }
+
+    /**
+     * Drops the current snapshot so the next read reloads the catalog.
+     */
+    public void invalidate() {
+        snapshot = null;
+    }
+
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    public long getLoadCount() {
+        return loads.get();
+    }
+
+    private Snapshot current() {
+        Snapshot current = snapshot;
+        if (current == null || current.isExpired(clock.millis())) {
+            synchronized (this) {
+                current = snapshot;
+                if (current == null || current.isExpired(clock.millis())) {
+                    current = load();
+                    snapshot = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    private Snapshot load() {
+        loads.incrementAndGet();
+        long expiresAt = ttlMillis > 0 ? clock.millis() + ttlMillis : Long.MAX_VALUE;
+
+        long count = itemRepository.count();
+        if (count > maxSize) {
+            log.warn("Item catalog has {} items, more than the cache maximum of {}. Serving reads from the database.",
+                    count, maxSize);
+            return Snapshot.uncached(expiresAt);
+        }
+
+        List<Item> items = itemRepository.findAll(Sort.by("id"));
+        log.info("Loaded {} items into the item catalog cache", items.size());
+        return Snapshot.of(items, expiresAt);
+    }
+
+    private static final class Snapshot {
+
+        private final boolean cached;
+        private final List<Item> items;
+        private final Map<Long, Item> byId;
+        private final Map<String, List<Item>> byName;
+        private final long expiresAtMillis;
+
+        private Snapshot(boolean cached, List<Item> items, Map<Long, Item> byId,
+                         Map<String, List<Item>> byName, long expiresAtMillis) {
+            this.cached = cached;
+            this.items = items;
+            this.byId = byId;
+            this.byName = byName;
+            this.expiresAtMillis = expiresAtMillis;
+        }
+
+        private static Snapshot of(List<Item> items, long expiresAtMillis) {
+            Map<Long, Item> byId = new HashMap<>();
+            Map<String, List<Item>> byName = new HashMap<>();
+            for (Item item : items) {
+                byId.put(item.getId(), item);
+                byName.computeIfAbsent(item.getName(), name -> new ArrayList<>()).add(item);
+            }
+            byName.replaceAll((name, named) -> Collections.unmodifiableList(named));
+            return new Snapshot(true, Collections.unmodifiableList(new ArrayList<>(items)), byId, byName,
+                    expiresAtMillis);
+        }
+
+        private static Snapshot uncached(long expiresAtMillis) {
+            return new Snapshot(false, Collections.emptyList(), Collections.emptyMap(), Collections.emptyMap(),
+                    expiresAtMillis);
+        }
+
+        private int indexAfter(long afterId) {
+            int low = 0;
+            int high = items.size();
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (items.get(mid).getId() <= afterId) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        private boolean isExpired(long nowMillis) {
+            return nowMillis >= expiresAtMillis;
+        }
+    }
+}
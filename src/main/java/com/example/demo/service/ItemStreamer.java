@@ -0,0 +1,48 @@
+package com.example.demo.service;
+
+import com.example.demo.model.persistence.Item;
+import com.example.demo.model.persistence.repositories.ItemRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Writes the item catalog as a JSON array straight from a database cursor. Each item is detached
+ * once written, so memory use does not grow with the size of the catalog.
+ */
+@Component
+public class ItemStreamer {
+
+    private final ItemRepository itemRepository;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+
+    public ItemStreamer(ItemRepository itemRepository, EntityManager entityManager, ObjectMapper objectMapper) {
+        this.itemRepository = itemRepository;
+        this.entityManager = entityManager;
+        this.objectMapper = objectMapper;
+    }
+
+    @Transactional(readOnly = true)
+    public void writeAll(OutputStream out) throws IOException {
+        try (Stream<Item> items = itemRepository.streamAllByOrderByIdAsc();
+             JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.writeStartArray();
+            Iterator<Item> iterator = items.iterator();
+            while (iterator.hasNext()) {
+                Item item = iterator.next();
+                generator.writeObject(item);
+                entityManager.detach(item);
+            }
+            generator.writeEndArray();
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.demo.service;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Clock;
+import java.util.List;
+
+/**
+ * Keeps idempotency keys in the {@code idempotency_key} table, so they survive restarts and are
+ * shared by every instance using the database. Writes join the caller's transaction, and every put
+ * first deletes the keys that have expired, which keeps the table bounded by the key TTL.
+ */
+public class JdbcIdempotencyStore implements IdempotencyStore {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final long ttlMillis;
+    private final Clock clock;
+
+    public JdbcIdempotencyStore(JdbcTemplate jdbcTemplate, long ttlMillis) {
+        this(jdbcTemplate, ttlMillis, Clock.systemUTC());
+    }
+
+    public JdbcIdempotencyStore(JdbcTemplate jdbcTemplate, long ttlMillis, Clock clock) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.ttlMillis = ttlMillis;
+        this.clock = clock;
+    }
+
+    @Override
+    public Long find(String username, String key) {
+        List<Long> orderIds = jdbcTemplate.queryForList(
+                "select order_id from idempotency_key"
+                        + " where username = ? and idempotency_key = ? and expires_at > ?",
+                Long.class, username, key, clock.millis());
+        return orderIds.isEmpty() ? null : orderIds.get(0);
+    }
+
+    @Override
+    public void put(String username, String key, long orderId) {
+        long now = clock.millis();
+        jdbcTemplate.update("delete from idempotency_key"
+                + " where expires_at <= ? or (username = ? and idempotency_key = ?)", now, username, key);
+        jdbcTemplate.update("insert into idempotency_key (username, idempotency_key, order_id, expires_at)"
+                + " values (?, ?, ?, ?)", username, key, orderId, now + ttlMillis);
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.demo.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * Bounded retry loop for read-modify-write units that fail on a version conflict. Each attempt must
+ * run in its own transaction so that it re-reads the row it lost the race for.
+ */
+@Slf4j
+@Component
+public class OptimisticRetry {
+
+    private final int maxAttempts;
+    private final long backoffMillis;
+
+    public OptimisticRetry(@Value("${cart.update.max-attempts:5}") int maxAttempts,
+                           @Value("${cart.update.retry-backoff-ms:10}") long backoffMillis) {
+        if (maxAttempts < 1) {
+            throw new IllegalArgumentException("maxAttempts must be at least 1");
+        }
+        this.maxAttempts = maxAttempts;
+        this.backoffMillis = backoffMillis;
+    }
+
+    /**
+     * Runs {@code work} until it completes without a {@link ConcurrencyFailureException}, sleeping a
+     * random, linearly growing delay between attempts.
+     *
+     * @throws UpdateConflictException when every attempt failed
+     */
+    public <T> T execute(Supplier<T> work) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return work.get();
+            } catch (ConcurrencyFailureException e) {
+                if (attempt >= maxAttempts) {
+                    throw new UpdateConflictException("Update still conflicting after " + attempt + " attempts", e);
+                }
+                log.debug("Concurrent update on attempt {}, retrying", attempt);
+                backOff(attempt, e);
+            }
+        }
+    }
+
+    private void backOff(int attempt, ConcurrencyFailureException cause) {
+        if (backoffMillis <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(backoffMillis * attempt + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new UpdateConflictException("Interrupted while waiting to retry", cause);
+        }
+    }
+}
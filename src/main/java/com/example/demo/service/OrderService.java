@@ -0,0 +1,79 @@
+package com.example.demo.service;
+
+import com.example.demo.model.persistence.Cart;
+import com.example.demo.model.persistence.UserOrder;
+import com.example.demo.model.persistence.repositories.CartRepository;
+import com.example.demo.model.persistence.repositories.OrderRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
+
+@Service
+public class OrderService {
+
+    private final CartRepository cartRepository;
+    private final OrderRepository orderRepository;
+    private final IdempotencyStore idempotencyStore;
+
+    public OrderService(CartRepository cartRepository, OrderRepository orderRepository,
+                        IdempotencyStore idempotencyStore) {
+        this.cartRepository = cartRepository;
+        this.orderRepository = orderRepository;
+        this.idempotencyStore = idempotencyStore;
+    }
+
+    /**
+     * Places an order from the user's cart and empties the cart, in one transaction. When
+     * {@code idempotencyKey} was already used by the user, the order it created is returned and no
+     * new order is written. Submissions of the same user queue on the cart row, so concurrent
+     * retries with one key still create a single order.
+     *
+     * @param idempotencyKey client-chosen key of the submission, may be {@code null}
+     * @return the submission, or {@code null} if the cart does not exist
+     */
+    @Transactional
+    public Submission submit(String username, long cartId, String idempotencyKey) {
+        if (cartRepository.lockId(cartId) == null) {
+            return null;
+        }
+
+        if (idempotencyKey != null) {
+            Long orderId = idempotencyStore.find(username, idempotencyKey);
+            Optional<UserOrder> existing = orderId == null ? Optional.empty() : orderRepository.findById(orderId);
+            if (existing.isPresent()) {
+                return new Submission(existing.get(), true);
+            }
+        }
+
+        Cart cart = cartRepository.findWithLinesById(cartId);
+        UserOrder order = orderRepository.save(UserOrder.createFromCart(cart));
+        cart.clear();
+        if (idempotencyKey != null) {
+            idempotencyStore.put(username, idempotencyKey, order.getId());
+        }
+        return new Submission(order, false);
+    }
+
+    public static final class Submission {
+
+        private final UserOrder order;
+        private final boolean replayed;
+
+        public Submission(UserOrder order, boolean replayed) {
+            this.order = order;
+            this.replayed = replayed;
+        }
+
+        public UserOrder getOrder() {
+            return order;
+        }
+
+        /**
+         * Whether the order was created by an earlier submission with the same idempotency key.
+         */
+        public boolean isReplayed() {
+            return replayed;
+        }
+    }
+}
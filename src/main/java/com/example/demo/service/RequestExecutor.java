@@ -0,0 +1,79 @@
+package com.example.demo.service;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.server.ResponseStatusException;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
+
+/**
+ * Runs the body of a controller method according to {@code app.execution.mode}.
+ *
+ * <p>In {@link Mode#BLOCKING} mode the work runs on the calling servlet thread and the returned
+ * future is already complete. In {@link Mode#ASYNC} mode the work runs on a dedicated executor
+ * sized for JDBC and BCrypt work, and the servlet thread is released as soon as the controller
+ * returns. The request's open-in-view {@code EntityManager} is bound on the worker thread for the
+ * duration of the call so lazy associations keep loading as they do in blocking mode.
+ */
+public class RequestExecutor {
+
+    public enum Mode {
+        BLOCKING,
+        ASYNC
+    }
+
+    private final Mode mode;
+    private final Executor executor;
+    private final EntityManagerFactory entityManagerFactory;
+
+    public RequestExecutor(Mode mode, Executor executor, EntityManagerFactory entityManagerFactory) {
+        this.mode = mode;
+        this.executor = executor;
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    /**
+     * Executor that always runs on the caller's thread, for controllers used outside a Spring context.
+     */
+    public static RequestExecutor blocking() {
+        return new RequestExecutor(Mode.BLOCKING, Runnable::run, null);
+    }
+
+    public <T> CompletableFuture<T> submit(Supplier<T> work) {
+        if (mode == Mode.BLOCKING) {
+            return CompletableFuture.completedFuture(work.get());
+        }
+
+        EntityManagerHolder entityManagerHolder = entityManagerFactory == null ? null
+                : (EntityManagerHolder) TransactionSynchronizationManager.getResource(entityManagerFactory);
+        try {
+            return CompletableFuture.supplyAsync(() -> runWith(entityManagerHolder, work), executor);
+        } catch (RejectedExecutionException e) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Request executor is saturated", e);
+        }
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    private <T> T runWith(EntityManagerHolder entityManagerHolder, Supplier<T> work) {
+        boolean bound = entityManagerHolder != null
+                && !TransactionSynchronizationManager.hasResource(entityManagerFactory);
+        if (bound) {
+            TransactionSynchronizationManager.bindResource(entityManagerFactory, entityManagerHolder);
+        }
+        try {
+            return work.get();
+        } finally {
+            if (bound) {
+                TransactionSynchronizationManager.unbindResource(entityManagerFactory);
+            }
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.demo.service;
+
+import com.example.demo.model.persistence.repositories.CartRepository;
+import com.example.demo.model.persistence.repositories.OrderRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Checks the stored cart and order totals against their lines with one aggregate query per table,
+ * and rewrites the ones that drifted. Exposed as the {@code totals} actuator endpoint over JMX only:
+ * a recompute bumps the version of every drifted cart, so it is kept away from the web API that
+ * every logged-in customer can reach.
+ */
+@Slf4j
+@Component
+@Endpoint(id = "totals")
+public class TotalsVerifier {
+
+    private final CartRepository cartRepository;
+    private final OrderRepository orderRepository;
+
+    public TotalsVerifier(CartRepository cartRepository, OrderRepository orderRepository) {
+        this.cartRepository = cartRepository;
+        this.orderRepository = orderRepository;
+    }
+
+    @ReadOperation
+    public Map<String, Long> mismatches() {
+        Map<String, Long> mismatches = new LinkedHashMap<>();
+        mismatches.put("carts", cartRepository.countTotalMismatches());
+        mismatches.put("orders", orderRepository.countTotalMismatches());
+        return mismatches;
+    }
+
+    @WriteOperation
+    @Transactional
+    public Map<String, Long> recompute() {
+        Map<String, Long> recomputed = new LinkedHashMap<>();
+        recomputed.put("carts", (long) cartRepository.recomputeMismatchedTotals());
+        recomputed.put("orders", (long) orderRepository.recomputeMismatchedTotals());
+        log.info("Recomputed totals from lines: {}", recomputed);
+        return recomputed;
+    }
+}
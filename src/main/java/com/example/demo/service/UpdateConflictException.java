@@ -0,0 +1,15 @@
+package com.example.demo.service;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Thrown when an update kept losing to concurrent writers until its retry budget ran out.
+ */
+@ResponseStatus(HttpStatus.CONFLICT)
+public class UpdateConflictException extends RuntimeException {
+
+    public UpdateConflictException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,9 @@
+-- /api/item/name/{name}
+create index idx_item_name on item (name);
+
+-- order history by user, newest first
+create index idx_user_order_user_id on user_order (user_id, id);
+
+-- cart and order line collections
+create index idx_cart_line_cart_id on cart_line (cart_id);
+create index idx_user_order_line_order_id on user_order_line (user_order_id);
@@ -0,0 +1 @@
+alter table cart add column version bigint default 0 not null;
@@ -0,0 +1,11 @@
+-- order submissions already answered, see JdbcIdempotencyStore
+create table idempotency_key (
+    username varchar(255) not null,
+    idempotency_key varchar(255) not null,
+    order_id bigint not null,
+    expires_at bigint not null,
+    primary key (username, idempotency_key)
+);
+
+-- purge of expired keys
+create index idx_idempotency_key_expires_at on idempotency_key (expires_at);
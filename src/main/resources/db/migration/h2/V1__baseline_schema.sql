@@ -0,0 +1,50 @@
+create table item (
+    id bigint generated by default as identity,
+    name varchar(255) not null,
+    price decimal(19, 2) not null,
+    description varchar(255) not null,
+    primary key (id)
+);
+
+create table cart (
+    id bigint generated by default as identity,
+    total decimal(19, 2),
+    primary key (id)
+);
+
+create table cart_line (
+    cart_id bigint not null,
+    item_id bigint not null,
+    quantity integer not null,
+    unit_price decimal(19, 2) not null
+);
+
+create table user (
+    id bigint generated by default as identity,
+    username varchar(255) not null,
+    password varchar(255) not null,
+    cart_id bigint,
+    primary key (id)
+);
+
+create table user_order (
+    id bigint generated by default as identity,
+    total decimal(19, 2),
+    user_id bigint not null,
+    primary key (id)
+);
+
+create table user_order_line (
+    user_order_id bigint not null,
+    item_id bigint not null,
+    quantity integer not null,
+    unit_price decimal(19, 2) not null
+);
+
+alter table user add constraint uk_user_username unique (username);
+alter table user add constraint fk_user_cart foreign key (cart_id) references cart (id);
+alter table cart_line add constraint fk_cart_line_cart foreign key (cart_id) references cart (id);
+alter table cart_line add constraint fk_cart_line_item foreign key (item_id) references item (id);
+alter table user_order add constraint fk_user_order_user foreign key (user_id) references user (id);
+alter table user_order_line add constraint fk_user_order_line_order foreign key (user_order_id) references user_order (id);
+alter table user_order_line add constraint fk_user_order_line_item foreign key (item_id) references item (id);
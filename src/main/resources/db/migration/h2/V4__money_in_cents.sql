@@ -0,0 +1,17 @@
+alter table cart add column total_cents bigint default 0 not null;
+update cart set total_cents = cast(round(total * 100, 0) as bigint) where total is not null;
+alter table cart drop column total;
+
+alter table user_order add column total_cents bigint default 0 not null;
+update user_order set total_cents = cast(round(total * 100, 0) as bigint) where total is not null;
+alter table user_order drop column total;
+
+alter table cart_line add column unit_price_cents bigint;
+update cart_line set unit_price_cents = cast(round(unit_price * 100, 0) as bigint);
+alter table cart_line alter column unit_price_cents set not null;
+alter table cart_line drop column unit_price;
+
+alter table user_order_line add column unit_price_cents bigint;
+update user_order_line set unit_price_cents = cast(round(unit_price * 100, 0) as bigint);
+alter table user_order_line alter column unit_price_cents set not null;
+alter table user_order_line drop column unit_price;
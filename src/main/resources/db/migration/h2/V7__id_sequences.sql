@@ -0,0 +1,13 @@
+-- Ids come from sequences that Hibernate reads in blocks of ${id_allocation_size} (PooledSequenceGenerator).
+-- The pooled optimizer uses the block of ids up to each value it reads, so every sequence starts one
+-- block above the highest id already taken.
+create sequence item_seq start with (select coalesce(max(id), 0) + ${id_allocation_size} from item) increment by ${id_allocation_size};
+create sequence cart_seq start with (select coalesce(max(id), 0) + ${id_allocation_size} from cart) increment by ${id_allocation_size};
+create sequence user_seq start with (select coalesce(max(id), 0) + ${id_allocation_size} from user) increment by ${id_allocation_size};
+create sequence user_order_seq start with (select coalesce(max(id), 0) + ${id_allocation_size} from user_order) increment by ${id_allocation_size};
+
+-- drop the identity defaults so that no insert can take an id outside the sequences
+alter table item alter column id bigint not null;
+alter table cart alter column id bigint not null;
+alter table user alter column id bigint not null;
+alter table user_order alter column id bigint not null;
@@ -0,0 +1,17 @@
+-- Ids come from sequences that Hibernate reads in blocks of ${id_allocation_size} (PooledSequenceGenerator).
+-- The pooled optimizer uses the block of ids up to each value it reads, so every sequence starts one
+-- block above the highest id already taken.
+create sequence item_seq increment by ${id_allocation_size};
+create sequence cart_seq increment by ${id_allocation_size};
+create sequence user_seq increment by ${id_allocation_size};
+create sequence user_order_seq increment by ${id_allocation_size};
+select setval('item_seq', (select coalesce(max(id), 0) + ${id_allocation_size} from item), false);
+select setval('cart_seq', (select coalesce(max(id), 0) + ${id_allocation_size} from cart), false);
+select setval('user_seq', (select coalesce(max(id), 0) + ${id_allocation_size} from "user"), false);
+select setval('user_order_seq', (select coalesce(max(id), 0) + ${id_allocation_size} from user_order), false);
+
+-- drop the identity defaults so that no insert can take an id outside the sequences
+alter table item alter column id drop identity;
+alter table cart alter column id drop identity;
+alter table "user" alter column id drop identity;
+alter table user_order alter column id drop identity;
@@ -0,0 +1,101 @@
+package com.example.demo;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Test helper that wraps the application {@link DataSource} and records every statement sent to
+ * the database. A JDBC batch is recorded once, because it is one round trip.
+ */
+public class SqlStatementCounter implements BeanPostProcessor {
+
+    private final List<String> statements = new CopyOnWriteArrayList<>();
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof DataSource) {
+            return proxy(DataSource.class, bean, this::wrapConnection);
+        }
+        return bean;
+    }
+
+    public void reset() {
+        statements.clear();
+    }
+
+    public List<String> getStatements() {
+        return new ArrayList<>(statements);
+    }
+
+    public long count(String verb) {
+        String prefix = verb.toLowerCase(Locale.ROOT);
+        return statements.stream()
+                .filter(sql -> sql.trim().toLowerCase(Locale.ROOT).startsWith(prefix))
+                .count();
+    }
+
+    public long selectCount() {
+        return count("select");
+    }
+
+    private Object wrapConnection(Method method, Object result, Object[] args) {
+        if (result instanceof Connection) {
+            return proxy(Connection.class, result, this::wrapStatement);
+        }
+        return result;
+    }
+
+    private Object wrapStatement(Method method, Object result, Object[] args) {
+        if (result instanceof PreparedStatement && args != null && args[0] instanceof String) {
+            String sql = (String) args[0];
+            return proxy(PreparedStatement.class, result, (m, r, a) -> r, m -> record(m, sql));
+        }
+        return result;
+    }
+
+    private void record(Method method, String sql) {
+        String name = method.getName();
+        if (name.equals("executeQuery") || name.equals("executeUpdate") || name.equals("execute")
+                || name.equals("executeBatch") || name.equals("executeLargeUpdate")) {
+            statements.add(sql);
+        }
+    }
+
+    private static <T> T proxy(Class<T> type, Object target, ResultWrapper wrapper) {
+        return proxy(type, target, wrapper, method -> { });
+    }
+
+    private static <T> T proxy(Class<T> type, Object target, ResultWrapper wrapper, BeforeCall beforeCall) {
+        InvocationHandler handler = (proxy, method, args) -> {
+            if (method.getName().equals("unwrap") || method.getName().equals("isWrapperFor")) {
+                return method.invoke(target, args);
+            }
+            beforeCall.accept(method);
+            try {
+                return wrapper.wrap(method, method.invoke(target, args), args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        };
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, handler));
+    }
+
+    private interface ResultWrapper {
+        Object wrap(Method method, Object result, Object[] args);
+    }
+
+    private interface BeforeCall {
+        void accept(Method method);
+    }
+}
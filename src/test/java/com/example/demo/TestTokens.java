@@ -0,0 +1,34 @@
+package com.example.demo;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.JWTCreator;
+import com.example.demo.model.persistence.User;
+import com.example.demo.security.SecurityConstants;
+
+import java.util.Date;
+
+import static com.auth0.jwt.algorithms.Algorithm.HMAC512;
+
+/**
+ * Issues Authorization header values the way {@code /login} does, for tests that call secured endpoints.
+ */
+public final class TestTokens {
+
+    private TestTokens() {
+    }
+
+    public static String bearer(User user) {
+        return bearer(user.getUsername(), user.getId(), user.getCart() == null ? null : user.getCart().getId());
+    }
+
+    public static String bearer(String username, long userId, Long cartId) {
+        JWTCreator.Builder builder = JWT.create()
+                .withSubject(username)
+                .withClaim(SecurityConstants.USER_ID_CLAIM, userId)
+                .withExpiresAt(new Date(System.currentTimeMillis() + SecurityConstants.EXPIRATION_TIME));
+        if (cartId != null) {
+            builder.withClaim(SecurityConstants.CART_ID_CLAIM, cartId);
+        }
+        return SecurityConstants.TOKEN_PREFIX + builder.sign(HMAC512(SecurityConstants.SECRET.getBytes()));
+    }
+}
@@ -0,0 +1,108 @@
+package com.example.demo.cache;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BoundedExpiringCacheTest {
+
+    private MutableClock clock;
+    private BoundedExpiringCache<String, String> cache;
+
+    @BeforeEach
+    void setUp() {
+        clock = new MutableClock(1_000L);
+        cache = new BoundedExpiringCache<>(2, clock);
+    }
+
+    @Test
+    void get_countsHitsAndMisses() {
+        // given
+        cache.put("a", "A", 2_000L);
+
+        // when
+        String hit = cache.get("a");
+        String miss = cache.get("b");
+
+        // then
+        assertEquals("A", hit);
+        assertNull(miss);
+        assertEquals(1, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+    }
+
+    @Test
+    void get_entryExpired_returnsNull() {
+        // given
+        cache.put("a", "A", 2_000L);
+
+        // when
+        clock.millis = 2_000L;
+
+        // then
+        assertNull(cache.get("a"));
+        assertEquals(0, cache.size());
+        assertEquals(1, cache.getEvictionCount());
+    }
+
+    @Test
+    void put_cacheFull_evictsLeastRecentlyUsed() {
+        // given
+        cache.put("a", "A", 5_000L);
+        cache.put("b", "B", 5_000L);
+        cache.get("a");
+
+        // when
+        cache.put("c", "C", 5_000L);
+
+        // then
+        assertEquals("A", cache.get("a"));
+        assertNull(cache.get("b"));
+        assertEquals("C", cache.get("c"));
+        assertEquals(1, cache.getEvictionCount());
+    }
+
+    @Test
+    void put_alreadyExpired_notStored() {
+        // when
+        cache.put("a", "A", 1_000L);
+
+        // then
+        assertEquals(0, cache.size());
+    }
+
+    private static class MutableClock extends Clock {
+
+        private long millis;
+
+        private MutableClock(long millis) {
+            this.millis = millis;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public long millis() {
+            return millis;
+        }
+
+        @Override
+        public Instant instant() {
+            return Instant.ofEpochMilli(millis);
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.demo.config;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs {@value #REQUESTS} concurrent requests that each hold a connection to the in-memory H2
+ * database for {@value #HOLD_MILLIS} ms, against pools of different sizes, and compares the time
+ * spent waiting for a connection as reported by {@code hikaricp.connections.acquire}.
+ */
+class ConnectionPoolLoadTest {
+
+    private static final int REQUESTS = 16;
+    private static final long HOLD_MILLIS = 50L;
+
+    private static int databaseSequence;
+
+    @Test
+    void burst_smallPool_requestsWaitForConnections() throws Exception {
+        // when
+        double undersizedWaitMillis = totalAcquireMillis(2);
+        double matchingWaitMillis = totalAcquireMillis(REQUESTS);
+
+        // then: with 2 connections the requests are served 2 at a time, 14 of them wait 50-350 ms
+        assertTrue(undersizedWaitMillis > 1000, "pool of 2 waited " + undersizedWaitMillis + " ms");
+        assertTrue(matchingWaitMillis < undersizedWaitMillis / 4,
+                "pool of " + REQUESTS + " waited " + matchingWaitMillis + " ms, pool of 2 " + undersizedWaitMillis + " ms");
+    }
+
+    private double totalAcquireMillis(int poolSize) throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        HikariConfig config = new HikariConfig();
+        config.setPoolName("load" + poolSize);
+        config.setJdbcUrl("jdbc:h2:mem:connectionPoolLoad" + (++databaseSequence) + ";DB_CLOSE_DELAY=-1");
+        config.setUsername("sa");
+        config.setMaximumPoolSize(poolSize);
+        config.setMinimumIdle(poolSize);
+        config.setMetricRegistry(registry);
+
+        try (HikariDataSource dataSource = new HikariDataSource(config)) {
+            // open every connection up front so that the burst measures waiting, not connecting
+            List<Connection> warmUp = new ArrayList<>();
+            for (int i = 0; i < poolSize; i++) {
+                warmUp.add(dataSource.getConnection());
+            }
+            for (Connection connection : warmUp) {
+                connection.close();
+            }
+            Timer acquire = registry.find("hikaricp.connections.acquire").timer();
+            assertNotNull(acquire);
+            assertNotNull(registry.find("hikaricp.connections.pending").gauge());
+            double warmUpMillis = acquire.totalTime(TimeUnit.MILLISECONDS);
+
+            runBurst(dataSource);
+            return acquire.totalTime(TimeUnit.MILLISECONDS) - warmUpMillis;
+        }
+    }
+
+    private void runBurst(HikariDataSource dataSource) throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService requests = Executors.newFixedThreadPool(REQUESTS);
+        try {
+            List<Future<Integer>> results = new ArrayList<>();
+            for (int i = 0; i < REQUESTS; i++) {
+                results.add(requests.submit(() -> {
+                    start.await();
+                    try (Connection connection = dataSource.getConnection();
+                         Statement statement = connection.createStatement();
+                         ResultSet resultSet = statement.executeQuery("select 1")) {
+                        resultSet.next();
+                        Thread.sleep(HOLD_MILLIS);
+                        return resultSet.getInt(1);
+                    }
+                }));
+            }
+            start.countDown();
+            for (Future<Integer> result : results) {
+                assertEquals(1, result.get(30, TimeUnit.SECONDS));
+            }
+        } finally {
+            requests.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.demo.config;
+
+import com.example.demo.model.persistence.User;
+import com.example.demo.model.persistence.repositories.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The h2file profile migrates and serves a database stored on disk.
+ */
+@SpringBootTest
+@ActiveProfiles("h2file")
+class H2FileProfileTest {
+
+    @TempDir
+    static Path databaseDirectory;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @DynamicPropertySource
+    static void databasePath(DynamicPropertyRegistry registry) {
+        registry.add("app.datasource.h2.path", () -> databaseDirectory.resolve("ecommerceapp").toString());
+    }
+
+    @Test
+    void save_h2FileProfile_writesToDatabaseFile() {
+        // given
+        User user = new User();
+        user.setUsername("fileUser");
+        user.setPassword("hashedPassword");
+
+        // when
+        userRepository.save(user);
+
+        // then
+        assertTrue(Files.exists(databaseDirectory.resolve("ecommerceapp.mv.db")));
+        assertEquals("65536", jdbcTemplate.queryForObject(
+                "select value from information_schema.settings where name = 'CACHE_SIZE'", String.class));
+        assertNotNull(userRepository.findByUsername("fileUser"));
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.demo.config;
+
+import com.example.demo.model.persistence.Cart;
+import com.example.demo.model.persistence.User;
+import com.example.demo.model.persistence.repositories.CartRepository;
+import com.example.demo.model.persistence.repositories.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+/**
+ * The jdbc profile derives the driver from the URL and quotes the user table. It runs against H2 in
+ * PostgreSQL mode, which folds unquoted names to lower case as PostgreSQL does, so the quoted
+ * {@code "user"} only matches if the profile quotes it consistently.
+ */
+@SpringBootTest
+@ActiveProfiles("jdbc")
+class JdbcProfileTest {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CartRepository cartRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @DynamicPropertySource
+    static void database(DynamicPropertyRegistry registry) {
+        registry.add("DATABASE_URL",
+                () -> "jdbc:h2:mem:jdbcProfile;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1");
+        registry.add("DATABASE_USERNAME", () -> "sa");
+        registry.add("DATABASE_PASSWORD", () -> "");
+    }
+
+    @Test
+    void save_jdbcProfile_writesQuotedUserTableAndLocksCart() {
+        // given
+        User user = new User();
+        user.setUsername("jdbcUser");
+        user.setPassword("hashedPassword");
+        user.setCart(new Cart());
+
+        // when
+        Cart cart = userRepository.save(user).getCart();
+        Long lockedId = transactionTemplate.execute(status -> cartRepository.lockId(cart.getId()));
+
+        // then
+        assertEquals(1, jdbcTemplate.queryForObject(
+                "select count(*) from \"user\" where username = 'jdbcUser'", Integer.class));
+        assertNotNull(userRepository.findByUsername("jdbcUser"));
+        assertEquals(cart.getId(), lockedId);
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.demo.config;
+
+import com.example.demo.TestTokens;
+import com.example.demo.security.SecurityConstants;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.metrics.AutoConfigureMetrics;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureMetrics
+class PrometheusEndpointTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void prometheus_afterTraffic_exposesTimersAndPoolGauges() throws Exception {
+        // given
+        mockMvc.perform(post("/api/user/create")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"username\":\"metricsUser\",\"password\":\"password123\",\"confirmPassword\":\"password123\"}"))
+                .andExpect(request().asyncNotStarted())
+                .andExpect(status().isCreated());
+        String token = mockMvc.perform(post("/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"username\":\"metricsUser\",\"password\":\"password123\"}"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(SecurityConstants.HEADER_STRING);
+        mockMvc.perform(get("/api/order/history/metricsUser")
+                        .header(SecurityConstants.HEADER_STRING, token))
+                .andExpect(request().asyncNotStarted())
+                .andExpect(status().isOk());
+
+        // when
+        String scrape = mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        // then
+        assertTrue(scrape.contains("http_server_requests_seconds_bucket{"));
+        assertTrue(scrape.contains("uri=\"/api/order/history/{username}\""));
+        assertTrue(scrape.contains("quantile=\"0.99\""));
+        assertTrue(scrape.contains("ecommerce_jwt_verification_seconds_count"));
+        assertTrue(scrape.contains("ecommerce_jwt_verified_cache_evictions_total"));
+        assertTrue(scrape.contains("ecommerce_login_user_cache_evictions_total"));
+        assertTrue(scrape.contains("ecommerce_bcrypt_seconds_count{operation=\"encode\""));
+        assertTrue(scrape.contains("ecommerce_json_serialization_seconds_count{type=\"User\""));
+        assertTrue(scrape.contains("spring_data_repository_invocations_seconds_count{"));
+        assertTrue(scrape.contains("hikaricp_connections_active"));
+        assertTrue(scrape.contains("hikaricp_connections_pending{pool=\"ecommerce\""));
+        assertTrue(scrape.contains("hikaricp_connections_acquire_seconds{pool=\"ecommerce\",quantile=\"0.99\""));
+    }
+
+    @Test
+    void totals_notExposedOverWeb() throws Exception {
+        // given
+        String token = TestTokens.bearer("totalsUser", 1L, 1L);
+
+        // when / then
+        mockMvc.perform(post("/actuator/totals").header(SecurityConstants.HEADER_STRING, token))
+                .andExpect(status().isNotFound());
+    }
+}
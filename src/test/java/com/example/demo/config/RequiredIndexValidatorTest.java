@@ -0,0 +1,58 @@
+package com.example.demo.config;
+
+import org.flywaydb.core.Flyway;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RequiredIndexValidatorTest {
+
+    private static int databaseSequence;
+
+    private JdbcDataSource dataSource;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:indexValidator" + (++databaseSequence) + ";MODE=Oracle;DB_CLOSE_DELAY=-1");
+        dataSource.setUser("sa");
+        Flyway.configure()
+                .dataSource(dataSource)
+                .locations("classpath:db/migration/common", "classpath:db/migration/h2")
+                .placeholders(Collections.singletonMap("id_allocation_size", "50"))
+                .load()
+                .migrate();
+    }
+
+    @Test
+    void afterSingletonsInstantiated_migratedSchema_passes() {
+        // given
+        RequiredIndexValidator validator = new RequiredIndexValidator(dataSource);
+
+        // when / then
+        assertDoesNotThrow(validator::afterSingletonsInstantiated);
+    }
+
+    @Test
+    void afterSingletonsInstantiated_indexMissing_failsFast() throws SQLException {
+        // given
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("drop index idx_item_name");
+        }
+        RequiredIndexValidator validator = new RequiredIndexValidator(dataSource);
+
+        // when
+        IllegalStateException exception = assertThrows(IllegalStateException.class,
+                validator::afterSingletonsInstantiated);
+
+        // then
+        assertTrue(exception.getMessage().contains("item(name)"), exception.getMessage());
+    }
+}
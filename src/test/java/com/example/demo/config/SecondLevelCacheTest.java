@@ -0,0 +1,90 @@
+package com.example.demo.config;
+
+import com.example.demo.SqlStatementCounter;
+import com.example.demo.model.persistence.Cart;
+import com.example.demo.model.persistence.User;
+import com.example.demo.model.persistence.repositories.ItemRepository;
+import com.example.demo.model.persistence.repositories.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@Import(SqlStatementCounter.class)
+class SecondLevelCacheTest {
+
+    private static final AtomicInteger USER_SEQUENCE = new AtomicInteger();
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private SqlStatementCounter sqlStatementCounter;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private String username;
+
+    @BeforeEach
+    void setUp() {
+        username = "cachedUser" + USER_SEQUENCE.incrementAndGet();
+        User user = new User();
+        user.setUsername(username);
+        user.setPassword("hashedPassword");
+        user.setCart(new Cart());
+        userRepository.save(user);
+    }
+
+    @Test
+    void findByUsername_repeated_servedFromCache() {
+        // given
+        userRepository.findByUsername(username);
+        sqlStatementCounter.reset();
+
+        // when
+        User user = userRepository.findByUsername(username);
+
+        // then
+        assertEquals(username, user.getUsername());
+        assertEquals(0, sqlStatementCounter.selectCount(), sqlStatementCounter.getStatements().toString());
+        assertTrue(meterRegistry.get("ecommerce.cache.hit-ratio").tag("region", "user-by-username").gauge().value() > 0);
+    }
+
+    @Test
+    void findByUsername_afterPasswordChange_returnsNewPassword() {
+        // given
+        User user = userRepository.findByUsername(username);
+        user.setPassword("rehashedPassword");
+
+        // when
+        userRepository.save(user);
+
+        // then
+        assertEquals("rehashedPassword", userRepository.findByUsername(username).getPassword());
+    }
+
+    @Test
+    void findById_item_servedFromCache() {
+        // given
+        itemRepository.findById(1L);
+        sqlStatementCounter.reset();
+
+        // when
+        String name = itemRepository.findById(1L).get().getName();
+
+        // then
+        assertEquals("Round Widget", name);
+        assertEquals(0, sqlStatementCounter.selectCount(), sqlStatementCounter.getStatements().toString());
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.demo.controllers;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "app.execution.mode=async",
+        "app.execution.jdbc-pool-size=" + ExecutionModeLoadTestSupport.JDBC_THREADS,
+        "server.tomcat.threads.max=" + ExecutionModeLoadTestSupport.TOMCAT_THREADS,
+        "server.tomcat.threads.min-spare=" + ExecutionModeLoadTestSupport.TOMCAT_THREADS
+})
+class AsyncExecutionModeLoadTest extends ExecutionModeLoadTestSupport {
+
+    @Test
+    void historyBurst_ceilingExceedsTomcatThreadCount() throws Exception {
+        // when
+        int ceiling = measureConcurrencyCeiling();
+
+        // then: the Tomcat threads only hand requests over to the JDBC executor
+        assertTrue(ceiling > TOMCAT_THREADS, "async ceiling was " + ceiling);
+    }
+}
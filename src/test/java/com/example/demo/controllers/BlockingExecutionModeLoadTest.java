@@ -0,0 +1,23 @@
+package com.example.demo.controllers;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "app.execution.mode=blocking",
+        "server.tomcat.threads.max=" + ExecutionModeLoadTestSupport.TOMCAT_THREADS,
+        "server.tomcat.threads.min-spare=" + ExecutionModeLoadTestSupport.TOMCAT_THREADS
+})
+class BlockingExecutionModeLoadTest extends ExecutionModeLoadTestSupport {
+
+    @Test
+    void historyBurst_ceilingIsTomcatThreadCount() throws Exception {
+        // when
+        int ceiling = measureConcurrencyCeiling();
+
+        // then
+        assertTrue(ceiling <= TOMCAT_THREADS, "blocking ceiling was " + ceiling);
+    }
+}
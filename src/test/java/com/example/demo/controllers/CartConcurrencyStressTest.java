@@ -0,0 +1,124 @@
+package com.example.demo.controllers;
+
+import com.example.demo.TestTokens;
+import com.example.demo.model.persistence.Cart;
+import com.example.demo.model.persistence.CartLine;
+import com.example.demo.model.persistence.User;
+import com.example.demo.model.persistence.repositories.CartRepository;
+import com.example.demo.model.persistence.repositories.UserRepository;
+import com.example.demo.security.SecurityConstants;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Hammers a single cart from many clients at once and checks that no update was lost: without
+ * version checks concurrent read-modify-write cycles overwrite each other's lines and total.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "cart.update.max-attempts=100",
+        "cart.update.retry-backoff-ms=5"
+})
+class CartConcurrencyStressTest {
+
+    private static final int CLIENTS = 8;
+    private static final int REQUESTS_PER_CLIENT = 25;
+
+    // seeded by V3__seed_items.sql
+    private static final long ROUND_WIDGET_CENTS = 299L;
+    private static final long SQUARE_WIDGET_CENTS = 199L;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CartRepository cartRepository;
+
+    private long cartId;
+    private HttpHeaders headers;
+
+    @BeforeEach
+    void setUp() {
+        User user = new User();
+        user.setUsername("stressUser");
+        user.setPassword("hashedPassword");
+        user.setCart(new Cart());
+        user = userRepository.save(user);
+        cartId = user.getCart().getId();
+
+        headers = new HttpHeaders();
+        headers.set(SecurityConstants.HEADER_STRING, TestTokens.bearer(user));
+        headers.setContentType(MediaType.APPLICATION_JSON);
+    }
+
+    @Test
+    void concurrentUpdates_noUpdateIsLost() throws Exception {
+        // given: every client adds one round widget and two square widgets per round, then takes one square widget back
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService clients = Executors.newFixedThreadPool(CLIENTS);
+
+        // when
+        List<Future<List<HttpStatus>>> results = new ArrayList<>();
+        try {
+            for (int i = 0; i < CLIENTS; i++) {
+                results.add(clients.submit(() -> {
+                    start.await();
+                    List<HttpStatus> statuses = new ArrayList<>();
+                    for (int r = 0; r < REQUESTS_PER_CLIENT; r++) {
+                        statuses.add(post("/api/cart/addToCart", 1L, 1));
+                        statuses.add(post("/api/cart/addToCart", 2L, 2));
+                        statuses.add(post("/api/cart/removeFromCart", 2L, 1));
+                    }
+                    return statuses;
+                }));
+            }
+            start.countDown();
+            for (Future<List<HttpStatus>> result : results) {
+                for (HttpStatus status : result.get(60, TimeUnit.SECONDS)) {
+                    assertEquals(HttpStatus.OK, status);
+                }
+            }
+        } finally {
+            clients.shutdownNow();
+        }
+
+        // then
+        int rounds = CLIENTS * REQUESTS_PER_CLIENT;
+        Cart cart = cartRepository.findWithLinesById(cartId);
+        Map<Long, Integer> quantities = new HashMap<>();
+        for (CartLine line : cart.getLines()) {
+            quantities.put(line.getItem().getId(), line.getQuantity());
+        }
+        assertEquals(rounds, quantities.get(1L).intValue());
+        assertEquals(rounds, quantities.get(2L).intValue());
+        assertEquals(rounds * (ROUND_WIDGET_CENTS + SQUARE_WIDGET_CENTS), cart.getTotalCents());
+    }
+
+    private HttpStatus post(String path, long itemId, int quantity) {
+        String body = "{\"username\":\"stressUser\",\"itemId\":" + itemId + ",\"quantity\":" + quantity + "}";
+        ResponseEntity<String> response = restTemplate.postForEntity(path, new HttpEntity<>(body, headers), String.class);
+        return response.getStatusCode();
+    }
+}
@@ -3,45 +3,60 @@ package com.example.demo.controllers;
 import com.example.demo.model.persistence.Cart;
 import com.example.demo.model.persistence.Item;
 import com.example.demo.model.persistence.User;
-import com.example.demo.model.persistence.repositories.CartRepository;
-import com.example.demo.model.persistence.repositories.ItemRepository;
-import com.example.demo.model.persistence.repositories.UserRepository;
 import com.example.demo.model.requests.ModifyCartRequest;
+import com.example.demo.model.requests.CartOperation;
+import com.example.demo.model.requests.ModifyCartBatchRequest;
+import com.example.demo.security.UserPrincipal;
+import com.example.demo.service.CartService;
+import com.example.demo.service.CartWriteCoalescer;
+import com.example.demo.service.ItemCatalog;
+import com.example.demo.service.OptimisticRetry;
+import com.example.demo.service.RequestExecutor;
+import com.example.demo.service.UpdateConflictException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.HttpStatus;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.http.ResponseEntity;
 
 import java.math.BigDecimal;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import java.util.stream.IntStream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
 class CartControllerTest {
 
-    @Mock
-    private UserRepository userRepository;
+    private static final int MAX_ATTEMPTS = 3;
 
     @Mock
-    private CartRepository cartRepository;
+    private ItemCatalog itemCatalog;
 
     @Mock
-    private ItemRepository itemRepository;
+    private CartService cartService;
+
+    @Spy
+    private OptimisticRetry optimisticRetry = new OptimisticRetry(MAX_ATTEMPTS, 0);
+
+    @Spy
+    private RequestExecutor requestExecutor = RequestExecutor.blocking();
 
-    @InjectMocks
     private CartController cartController;
+    private UserPrincipal principal;
 
     private List<Item> itemList;
     private Cart cart;
@@ -49,6 +64,10 @@ class CartControllerTest {
 
     @BeforeEach
     void setUp() {
+        cartController = new CartController(itemCatalog,
+                new CartWriteCoalescer(cartService, optimisticRetry, 0, 0), requestExecutor);
+        principal = new UserPrincipal(1L, "testUser", 1L);
+
         // setup itemList
         itemList = new ArrayList<>();
 
@@ -93,42 +112,65 @@ class CartControllerTest {
         modifyCartRequest.setItemId(itemList.get(1).getId());
         modifyCartRequest.setQuantity(2);
 
-        when(userRepository.findByUsername("testUser")).thenReturn(user);
-        when(itemRepository.findById(modifyCartRequest.getItemId())).thenReturn(Optional.of(itemList.get(1)));
+        when(itemCatalog.findById(modifyCartRequest.getItemId())).thenReturn(Optional.of(itemList.get(1)));
+        when(cartService.applyOperations(eq(1L), any(), any())).thenReturn(cart);
 
-        Cart expectedCart = new Cart();
-        expectedCart.setId(1L);
-        expectedCart.setUser(user);
-        expectedCart.addItem(itemList.get(0));
-        expectedCart.addItem(itemList.get(0));
-        expectedCart.addItem(itemList.get(1));
-        IntStream.range(0, modifyCartRequest.getQuantity())
-                .forEach(i -> expectedCart.addItem(itemList.get(1)));
+        // when
+        ResponseEntity<Cart> response = cartController.addToCart(principal, modifyCartRequest).join();
 
-        when(cartRepository.save(any(Cart.class))).thenReturn(expectedCart);
+        // then
+        verify(cartService, times(1)).applyOperations(1L,
+                Collections.singletonList(new CartOperation(2L, 2)),
+                Collections.singletonMap(2L, itemList.get(1)));
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(cart, response.getBody());
+    }
+
+    @Test
+    void addToCart_otherUsername_403() {
+        // given
+        ModifyCartRequest modifyCartRequest = new ModifyCartRequest();
+        modifyCartRequest.setUsername("otherUser");
+        modifyCartRequest.setItemId(itemList.get(1).getId());
+        modifyCartRequest.setQuantity(2);
 
         // when
-        ResponseEntity<Cart> response = cartController.addToCart(modifyCartRequest);
+        ResponseEntity<Cart> response = cartController.addToCart(principal, modifyCartRequest).join();
 
         // then
-        verify(cart, times(modifyCartRequest.getQuantity() + 1)).addItem(itemList.get(1));
-        verify(cartRepository, times(1)).save(any(Cart.class));
-        assertEquals(HttpStatus.OK, response.getStatusCode());
-        assertEquals(expectedCart, response.getBody());
+        verifyNoInteractions(itemCatalog, cartService);
+        assertEquals(HttpStatus.FORBIDDEN, response.getStatusCode());
     }
 
     @Test
-    void addToCart_userNotFound_404() {
+    void addToCart_quantityAboveMax_400() {
         // given
         ModifyCartRequest modifyCartRequest = new ModifyCartRequest();
-        modifyCartRequest.setUsername("userDoesNotExist");
+        modifyCartRequest.setUsername("testUser");
+        modifyCartRequest.setItemId(itemList.get(1).getId());
+        modifyCartRequest.setQuantity(CartController.MAX_QUANTITY + 1);
+
+        // when
+        ResponseEntity<Cart> response = cartController.addToCart(principal, modifyCartRequest).join();
+
+        // then
+        verifyNoInteractions(itemCatalog, cartService);
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+    }
+
+    @Test
+    void addToCart_cartNotFound_404() {
+        // given
+        ModifyCartRequest modifyCartRequest = new ModifyCartRequest();
+        modifyCartRequest.setUsername("testUser");
         modifyCartRequest.setItemId(itemList.get(1).getId());
         modifyCartRequest.setQuantity(2);
 
-        when(userRepository.findByUsername("userDoesNotExist")).thenReturn(null);
+        when(itemCatalog.findById(modifyCartRequest.getItemId())).thenReturn(Optional.of(itemList.get(1)));
+        when(cartService.applyOperations(eq(1L), any(), any())).thenReturn(null);
 
         // when
-        ResponseEntity<Cart> response = cartController.addToCart(modifyCartRequest);
+        ResponseEntity<Cart> response = cartController.addToCart(principal, modifyCartRequest).join();
 
         // then
         assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
@@ -143,17 +185,57 @@ class CartControllerTest {
         modifyCartRequest.setItemId(3L);
         modifyCartRequest.setQuantity(2);
 
-        when(userRepository.findByUsername("testUser")).thenReturn(user);
-        when(itemRepository.findById(3L)).thenReturn(Optional.empty());
+        when(itemCatalog.findById(3L)).thenReturn(Optional.empty());
 
         // when
-        ResponseEntity<Cart> response = cartController.addToCart(modifyCartRequest);
+        ResponseEntity<Cart> response = cartController.addToCart(principal, modifyCartRequest).join();
 
         // then
+        verifyNoInteractions(cartService);
         assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
         assertNull(response.getBody());
     }
 
+    @Test
+    void addToCart_versionConflict_retriesUntilWriteSucceeds() {
+        // given
+        ModifyCartRequest modifyCartRequest = new ModifyCartRequest();
+        modifyCartRequest.setUsername("testUser");
+        modifyCartRequest.setItemId(itemList.get(1).getId());
+        modifyCartRequest.setQuantity(1);
+
+        when(itemCatalog.findById(modifyCartRequest.getItemId())).thenReturn(Optional.of(itemList.get(1)));
+        when(cartService.applyOperations(eq(1L), any(), any()))
+                .thenThrow(new ObjectOptimisticLockingFailureException(Cart.class, 1L))
+                .thenThrow(new ObjectOptimisticLockingFailureException(Cart.class, 1L))
+                .thenReturn(cart);
+
+        // when
+        ResponseEntity<Cart> response = cartController.addToCart(principal, modifyCartRequest).join();
+
+        // then
+        verify(cartService, times(3)).applyOperations(eq(1L), any(), any());
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(cart, response.getBody());
+    }
+
+    @Test
+    void addToCart_versionConflictOnEveryAttempt_409() {
+        // given
+        ModifyCartRequest modifyCartRequest = new ModifyCartRequest();
+        modifyCartRequest.setUsername("testUser");
+        modifyCartRequest.setItemId(itemList.get(1).getId());
+        modifyCartRequest.setQuantity(1);
+
+        when(itemCatalog.findById(modifyCartRequest.getItemId())).thenReturn(Optional.of(itemList.get(1)));
+        when(cartService.applyOperations(eq(1L), any(), any()))
+                .thenThrow(new ObjectOptimisticLockingFailureException(Cart.class, 1L));
+
+        // when / then
+        assertThrows(UpdateConflictException.class, () -> cartController.addToCart(principal, modifyCartRequest));
+        verify(cartService, times(MAX_ATTEMPTS)).applyOperations(eq(1L), any(), any());
+    }
+
     @Test
     void removeFromCart() {
         // given
@@ -162,27 +244,143 @@ class CartControllerTest {
         modifyCartRequest.setItemId(itemList.get(0).getId());
         modifyCartRequest.setQuantity(1);
 
-        when(userRepository.findByUsername("testUser")).thenReturn(user);
-        when(itemRepository.findById(modifyCartRequest.getItemId())).thenReturn(Optional.of(itemList.get(0)));
+        when(itemCatalog.findById(modifyCartRequest.getItemId())).thenReturn(Optional.of(itemList.get(0)));
+        when(cartService.applyOperations(eq(1L), any(), any())).thenReturn(cart);
 
-        Cart expectedCart = new Cart();
-        expectedCart.setId(1L);
-        expectedCart.setUser(user);
-        expectedCart.addItem(itemList.get(0));
-        expectedCart.addItem(itemList.get(0));
-        expectedCart.addItem(itemList.get(1));
-        IntStream.range(0, modifyCartRequest.getQuantity())
-                .forEach(i -> expectedCart.removeItem(itemList.get(0)));
+        // when
+        ResponseEntity<Cart> response = cartController.removeFromCart(principal, modifyCartRequest).join();
 
-        when(cartRepository.save(any(Cart.class))).thenReturn(expectedCart);
+        // then
+        verify(cartService, times(1)).applyOperations(1L,
+                Collections.singletonList(new CartOperation(1L, -1)),
+                Collections.singletonMap(1L, itemList.get(0)));
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(cart, response.getBody());
+    }
+
+    @Test
+    void removeFromCart_usernameOmitted_appliesToOwnCart() {
+        // given
+        ModifyCartRequest modifyCartRequest = new ModifyCartRequest();
+        modifyCartRequest.setItemId(itemList.get(0).getId());
+        modifyCartRequest.setQuantity(1);
+
+        when(itemCatalog.findById(modifyCartRequest.getItemId())).thenReturn(Optional.of(itemList.get(0)));
+        when(cartService.applyOperations(eq(1L), any(), any())).thenReturn(cart);
 
         // when
-        ResponseEntity<Cart> response = cartController.removeFromCart(modifyCartRequest);
+        ResponseEntity<Cart> response = cartController.removeFromCart(principal, modifyCartRequest).join();
 
         // then
-        verify(cart, times(modifyCartRequest.getQuantity())).removeItem(itemList.get(0));
-        verify(cartRepository, times(1)).save(any(Cart.class));
         assertEquals(HttpStatus.OK, response.getStatusCode());
-        assertEquals(expectedCart, response.getBody());
+        assertEquals(cart, response.getBody());
+    }
+
+    @Test
+    void modifyCart_resolvesItemsOnceAndAppliesBatch() {
+        // given
+        ModifyCartBatchRequest request = new ModifyCartBatchRequest();
+        request.setUsername("testUser");
+        request.setOperations(Arrays.asList(new CartOperation(2L, 3), new CartOperation(1L, -1)));
+
+        Map<Long, Item> items = new HashMap<>();
+        items.put(1L, itemList.get(0));
+        items.put(2L, itemList.get(1));
+        when(itemCatalog.findAllById(any())).thenReturn(items);
+        when(cartService.applyOperations(1L, request.getOperations(), items)).thenReturn(cart);
+
+        // when
+        ResponseEntity<Cart> response = cartController.modifyCart(principal, request).join();
+
+        // then
+        verify(itemCatalog, times(1)).findAllById(any());
+        verify(cartService, times(1)).applyOperations(1L, request.getOperations(), items);
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(cart, response.getBody());
+    }
+
+    @Test
+    void modifyCart_itemNotFound_404() {
+        // given
+        ModifyCartBatchRequest request = new ModifyCartBatchRequest();
+        request.setUsername("testUser");
+        request.setOperations(Arrays.asList(new CartOperation(1L, 1), new CartOperation(3L, 1)));
+
+        Map<Long, Item> items = new HashMap<>();
+        items.put(1L, itemList.get(0));
+        when(itemCatalog.findAllById(any())).thenReturn(items);
+
+        // when
+        ResponseEntity<Cart> response = cartController.modifyCart(principal, request).join();
+
+        // then
+        verifyNoInteractions(cartService);
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+    }
+
+    @Test
+    void modifyCart_userWithoutCart_404() {
+        // given
+        principal = new UserPrincipal(1L, "testUser", null);
+        ModifyCartBatchRequest request = new ModifyCartBatchRequest();
+        request.setUsername("testUser");
+        request.setOperations(Collections.singletonList(new CartOperation(1L, 1)));
+
+        Map<Long, Item> items = Collections.singletonMap(1L, itemList.get(0));
+        when(itemCatalog.findAllById(any())).thenReturn(items);
+
+        // when
+        ResponseEntity<Cart> response = cartController.modifyCart(principal, request).join();
+
+        // then
+        verifyNoInteractions(cartService);
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+        assertNull(response.getBody());
+    }
+
+    @Test
+    void modifyCart_deltaAboveMax_400() {
+        // given
+        ModifyCartBatchRequest request = new ModifyCartBatchRequest();
+        request.setUsername("testUser");
+        request.setOperations(Arrays.asList(new CartOperation(1L, 1),
+                new CartOperation(2L, -CartController.MAX_QUANTITY - 1)));
+
+        // when
+        ResponseEntity<Cart> response = cartController.modifyCart(principal, request).join();
+
+        // then
+        verifyNoInteractions(itemCatalog, cartService);
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+    }
+
+    @Test
+    void modifyCart_operationWithoutItemId_400() {
+        // given
+        ModifyCartBatchRequest request = new ModifyCartBatchRequest();
+        request.setUsername("testUser");
+        request.setOperations(Arrays.asList(new CartOperation(1L, 1), new CartOperation(null, 1)));
+
+        // when
+        ResponseEntity<Cart> response = cartController.modifyCart(principal, request).join();
+
+        // then
+        verifyNoInteractions(itemCatalog, cartService);
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+    }
+
+    @Test
+    void modifyCart_noOperations_400() {
+        // given
+        ModifyCartBatchRequest request = new ModifyCartBatchRequest();
+        request.setUsername("testUser");
+        request.setOperations(Collections.emptyList());
+
+        // when
+        ResponseEntity<Cart> response = cartController.modifyCart(principal, request).join();
+
+        // then
+        verifyNoInteractions(itemCatalog, cartService);
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
     }
-}
\ No newline at end of file
+}
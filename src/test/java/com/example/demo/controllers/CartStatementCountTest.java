@@ -0,0 +1,161 @@
+package com.example.demo.controllers;
+
+import com.example.demo.SqlStatementCounter;
+import com.example.demo.TestTokens;
+import com.example.demo.model.persistence.Cart;
+import com.example.demo.model.persistence.User;
+import com.example.demo.model.persistence.repositories.CartRepository;
+import com.example.demo.model.persistence.repositories.ItemRepository;
+import com.example.demo.model.persistence.repositories.UserRepository;
+import com.example.demo.security.SecurityConstants;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Counts the SQL statements issued by the cart and order endpoints to make sure the user, cart,
+ * cart lines and line items are read with a single query instead of one query per association,
+ * and that rows of one flush are written as JDBC batches.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@Import(SqlStatementCounter.class)
+class CartStatementCountTest {
+
+    private static final AtomicInteger USER_SEQUENCE = new AtomicInteger();
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private SqlStatementCounter sqlStatementCounter;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private CartRepository cartRepository;
+
+    private String username;
+    private long cartId;
+    private String token;
+
+    @BeforeEach
+    void setUp() {
+        // setup user with a cart holding two distinct items
+        username = "statementUser" + USER_SEQUENCE.incrementAndGet();
+
+        Cart cart = new Cart();
+        cart.addItem(itemRepository.findById(1L).get(), 3);
+        cart.addItem(itemRepository.findById(2L).get(), 1);
+
+        User user = new User();
+        user.setUsername(username);
+        user.setPassword("hashedPassword");
+        user.setCart(cart);
+        user = userRepository.save(user);
+        cartId = user.getCart().getId();
+        token = TestTokens.bearer(user);
+    }
+
+    @Test
+    void addToCart_readsUserCartAndItemsInOneQuery() throws Exception {
+        // given
+        sqlStatementCounter.reset();
+
+        // when / then
+        mockMvc.perform(post("/api/cart/addToCart")
+                .header(SecurityConstants.HEADER_STRING, token)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"username\":\"" + username + "\",\"itemId\":2,\"quantity\":2}"))
+                .andExpect(request().asyncNotStarted())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.lines.length()").value(2))
+                .andExpect(jsonPath("$.lines[1].quantity").value(3));
+
+        // then: the cart row lock plus one read, both by cart id; the item lookup is served by the catalog cache
+        assertEquals(2, sqlStatementCounter.selectCount(), sqlStatementCounter.getStatements().toString());
+        assertTrue(sqlStatementCounter.getStatements().get(0).contains(" for update"),
+                sqlStatementCounter.getStatements().toString());
+        assertTrue(sqlStatementCounter.getStatements().stream().noneMatch(sql -> sql.contains("username=?")),
+                sqlStatementCounter.getStatements().toString());
+    }
+
+    @Test
+    void submitOrder_readsUserCartAndItemsInOneQuery() throws Exception {
+        // given
+        sqlStatementCounter.reset();
+
+        // when / then
+        mockMvc.perform(post("/api/order/submit/" + username)
+                .header(SecurityConstants.HEADER_STRING, token))
+                .andExpect(request().asyncNotStarted())
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.lines.length()").value(2));
+
+        // then: the cart row lock plus one read
+        assertEquals(2, sqlStatementCounter.selectCount(), sqlStatementCounter.getStatements().toString());
+    }
+
+    @Test
+    void submitOrder_writesOrderAndClearsCartInFixedStatements() throws Exception {
+        // given
+        sqlStatementCounter.reset();
+
+        // when / then
+        mockMvc.perform(post("/api/order/submit/" + username)
+                .header(SecurityConstants.HEADER_STRING, token))
+                .andExpect(request().asyncNotStarted())
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.lines.length()").value(2));
+
+        // then: the order row, one batch for all order lines, the cart reset and one delete of its lines
+        String statements = sqlStatementCounter.getStatements().toString();
+        assertEquals(2, sqlStatementCounter.count("insert"), statements);
+        assertEquals(1, sqlStatementCounter.count("update"), statements);
+        assertEquals(1, sqlStatementCounter.count("delete"), statements);
+        assertEquals(2, sqlStatementCounter.selectCount(), statements);
+
+        Cart cart = cartRepository.findWithLinesById(cartId);
+        assertTrue(cart.getLines().isEmpty());
+        assertEquals(0L, cart.getTotalCents());
+    }
+
+    @Test
+    void modifyCart_readsOnceForWholeBatch() throws Exception {
+        // given
+        sqlStatementCounter.reset();
+
+        // when / then
+        mockMvc.perform(post("/api/cart/modifyCart")
+                .header(SecurityConstants.HEADER_STRING, token)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"username\":\"" + username + "\",\"operations\":["
+                        + "{\"itemId\":2,\"delta\":2},{\"itemId\":1,\"delta\":-3},{\"itemId\":2,\"delta\":1}]}"))
+                .andExpect(request().asyncNotStarted())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.lines.length()").value(1))
+                .andExpect(jsonPath("$.lines[0].quantity").value(4));
+
+        // then: the cart row lock, one read for user, cart and lines, items from the catalog, and at most one cart update
+        assertEquals(2, sqlStatementCounter.selectCount(), sqlStatementCounter.getStatements().toString());
+        assertTrue(sqlStatementCounter.count("update") <= 1, sqlStatementCounter.getStatements().toString());
+    }
+}
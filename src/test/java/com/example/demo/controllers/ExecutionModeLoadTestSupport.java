@@ -0,0 +1,79 @@
+package com.example.demo.controllers;
+
+import com.example.demo.TestTokens;
+import com.example.demo.model.persistence.repositories.OrderRepository;
+import com.example.demo.security.SecurityConstants;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.when;
+
+/**
+ * Fires a burst of concurrent order history requests at a server with only {@value #TOMCAT_THREADS}
+ * Tomcat worker threads, while the order lookup takes {@value #LOOKUP_DELAY_MILLIS} ms, and reports
+ * how many lookups were in flight at the same time: the concurrency ceiling of the execution mode.
+ */
+abstract class ExecutionModeLoadTestSupport {
+
+    static final int TOMCAT_THREADS = 4;
+    static final int JDBC_THREADS = 16;
+    static final int CONCURRENT_REQUESTS = 16;
+    static final long LOOKUP_DELAY_MILLIS = 200L;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @MockBean
+    private OrderRepository orderRepository;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+
+    int measureConcurrencyCeiling() throws Exception {
+        when(orderRepository.findByUserId(anyLong())).thenAnswer(invocation -> {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(LOOKUP_DELAY_MILLIS);
+            } finally {
+                inFlight.decrementAndGet();
+            }
+            return Collections.emptyList();
+        });
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(SecurityConstants.HEADER_STRING, TestTokens.bearer("loadUser", 1L, 1L));
+        HttpEntity<Void> request = new HttpEntity<>(headers);
+
+        ExecutorService clients = Executors.newFixedThreadPool(CONCURRENT_REQUESTS);
+        try {
+            List<Future<ResponseEntity<String>>> responses = new ArrayList<>();
+            for (int i = 0; i < CONCURRENT_REQUESTS; i++) {
+                responses.add(clients.submit(() -> restTemplate.exchange("/api/order/history/loadUser",
+                        HttpMethod.GET, request, String.class)));
+            }
+            for (Future<ResponseEntity<String>> response : responses) {
+                assertEquals(HttpStatus.OK, response.get(30, TimeUnit.SECONDS).getStatusCode());
+            }
+        } finally {
+            clients.shutdownNow();
+        }
+        return maxInFlight.get();
+    }
+}
@@ -1,7 +1,9 @@
 package com.example.demo.controllers;
 
 import com.example.demo.model.persistence.Item;
-import com.example.demo.model.persistence.repositories.ItemRepository;
+import com.example.demo.model.responses.ItemPage;
+import com.example.demo.service.ItemCatalog;
+import com.example.demo.service.ItemStreamer;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -21,7 +23,10 @@ import static org.mockito.Mockito.when;
 class ItemControllerTest {
 
     @Mock
-    private ItemRepository itemRepository;
+    private ItemCatalog itemCatalog;
+
+    @Mock
+    private ItemStreamer itemStreamer;
 
     @InjectMocks
     private ItemController itemController;
@@ -52,7 +57,7 @@ class ItemControllerTest {
     @Test
     void getItems() {
         // given
-        when(itemRepository.findAll()).thenReturn(itemList);
+        when(itemCatalog.findAll()).thenReturn(itemList);
 
         // when
         ResponseEntity<List<Item>> response = itemController.getItems();
@@ -62,10 +67,63 @@ class ItemControllerTest {
         assertEquals(itemList, response.getBody());
     }
 
+    @Test
+    void getItemsPage() {
+        // given
+        when(itemCatalog.findPage(0L, 2)).thenReturn(itemList);
+
+        // when
+        ResponseEntity<ItemPage> response = itemController.getItemsPage(0L, 2);
+
+        // then
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertNotNull(response.getBody());
+        assertEquals(itemList, response.getBody().getItems());
+        assertEquals(2L, response.getBody().getNextCursor());
+    }
+
+    @Test
+    void getItemsPage_lastPage_noCursor() {
+        // given
+        when(itemCatalog.findPage(1L, 50)).thenReturn(Collections.singletonList(itemList.get(1)));
+
+        // when
+        ResponseEntity<ItemPage> response = itemController.getItemsPage(1L, 50);
+
+        // then
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertNotNull(response.getBody());
+        assertEquals(1, response.getBody().getItems().size());
+        assertNull(response.getBody().getNextCursor());
+    }
+
+    @Test
+    void getItemsPage_sizeAboveMaximum_clamped() {
+        // given
+        when(itemCatalog.findPage(0L, ItemController.MAX_PAGE_SIZE)).thenReturn(itemList);
+
+        // when
+        ResponseEntity<ItemPage> response = itemController.getItemsPage(0L, 10_000);
+
+        // then
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertNotNull(response.getBody());
+        assertNull(response.getBody().getNextCursor());
+    }
+
+    @Test
+    void getItemsPage_sizeInvalid_400() {
+        // when
+        ResponseEntity<ItemPage> response = itemController.getItemsPage(0L, 0);
+
+        // then
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+    }
+
     @Test
     void getItemById() {
         // given
-        when(itemRepository.findById(1L)).thenReturn(Optional.of(itemList.get(0)));
+        when(itemCatalog.findById(1L)).thenReturn(Optional.of(itemList.get(0)));
 
         // when
         ResponseEntity<Item> response = itemController.getItemById(1L);
@@ -79,7 +137,7 @@ class ItemControllerTest {
     void getItemsByName() {
         // given
         String itemName = "itemTwo";
-        when(itemRepository.findByName(itemName)).thenReturn(Collections.singletonList(itemList.get(1)));
+        when(itemCatalog.findByName(itemName)).thenReturn(Collections.singletonList(itemList.get(1)));
 
         // when
         ResponseEntity<List<Item>> response = itemController.getItemsByName(itemName);
@@ -95,7 +153,7 @@ class ItemControllerTest {
     void getItemsByName_nameDoesNotExist_404() {
         // given
         String itemName = "itemDoesNotExist";
-        when(itemRepository.findByName(itemName)).thenReturn(Collections.emptyList());
+        when(itemCatalog.findByName(itemName)).thenReturn(Collections.emptyList());
 
         // when
         ResponseEntity<List<Item>> response = itemController.getItemsByName(itemName);
@@ -105,4 +163,4 @@ class ItemControllerTest {
         assertNull(response.getBody());
     }
 
-}
\ No newline at end of file
+}
\ No newline at end of file
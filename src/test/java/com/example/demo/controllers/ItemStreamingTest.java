@@ -0,0 +1,55 @@
+package com.example.demo.controllers;
+
+import com.example.demo.TestTokens;
+import com.example.demo.security.SecurityConstants;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class ItemStreamingTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void streamItems_writesWholeCatalogInIdOrder() throws Exception {
+        // when
+        MvcResult result = mockMvc.perform(get("/api/item/stream")
+                .header(SecurityConstants.HEADER_STRING, TestTokens.bearer("streamUser", 1L, null)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // then
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].id").value(1))
+                .andExpect(jsonPath("$[1].name").value("Square Widget"));
+    }
+
+    @Test
+    void getItemsPage_followsCursor() throws Exception {
+        mockMvc.perform(get("/api/item/page").param("size", "1")
+                .header(SecurityConstants.HEADER_STRING, TestTokens.bearer("streamUser", 1L, null)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].id").value(1))
+                .andExpect(jsonPath("$.nextCursor").value(1));
+
+        mockMvc.perform(get("/api/item/page").param("after", "1").param("size", "1")
+                .header(SecurityConstants.HEADER_STRING, TestTokens.bearer("streamUser", 1L, null)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].id").value(2))
+                .andExpect(jsonPath("$.nextCursor").value(2));
+    }
+}
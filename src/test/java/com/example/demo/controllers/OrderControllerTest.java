@@ -5,19 +5,27 @@ import com.example.demo.model.persistence.Item;
 import com.example.demo.model.persistence.User;
 import com.example.demo.model.persistence.UserOrder;
 import com.example.demo.model.persistence.repositories.OrderRepository;
-import com.example.demo.model.persistence.repositories.UserRepository;
+import com.example.demo.model.responses.OrderPage;
+import com.example.demo.model.responses.OrderSummary;
+import com.example.demo.security.UserPrincipal;
+import com.example.demo.service.IdempotencyStore;
+import com.example.demo.service.OrderService;
+import com.example.demo.service.RequestExecutor;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 
 import java.math.BigDecimal;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 
@@ -28,10 +36,13 @@ import static org.mockito.Mockito.*;
 class OrderControllerTest {
 
     @Mock
-    private UserRepository userRepository;
+    private OrderRepository orderRepository;
 
     @Mock
-    private OrderRepository orderRepository;
+    private OrderService orderService;
+
+    @Spy
+    private RequestExecutor requestExecutor = RequestExecutor.blocking();
 
     @InjectMocks
     private OrderController orderController;
@@ -39,9 +50,12 @@ class OrderControllerTest {
     private List<Item> itemList;
     private Cart cart;
     private User user;
+    private UserPrincipal principal;
 
     @BeforeEach
     void setUp() {
+        principal = new UserPrincipal(1L, "testUser", 1L);
+
         // setup itemList
         itemList = new ArrayList<>();
 
@@ -83,33 +97,136 @@ class OrderControllerTest {
         // given
         String username = "testUser";
         UserOrder expectedOrder = UserOrder.createFromCart(user.getCart());
-        when(userRepository.findByUsername(username)).thenReturn(user);
-        when(orderRepository.save(expectedOrder)).thenReturn(expectedOrder);
+        when(orderService.submit(username, 1L, null)).thenReturn(new OrderService.Submission(expectedOrder, false));
 
         // when
-        ResponseEntity<UserOrder> response = orderController.submitOrder(username);
+        ResponseEntity<UserOrder> response = orderController.submitOrder(principal, username, null).join();
 
         // then
-        verify(orderRepository, times(1)).save(expectedOrder);
+        verify(orderService, times(1)).submit(username, 1L, null);
         assertEquals(HttpStatus.CREATED, response.getStatusCode());
         assertEquals(expectedOrder, response.getBody());
     }
 
+    @Test
+    void submitOrder_replayedKey_returnsExistingOrder() {
+        // given
+        String username = "testUser";
+        UserOrder existingOrder = UserOrder.createFromCart(user.getCart());
+        existingOrder.setId(7L);
+        when(orderService.submit(username, 1L, "key-1")).thenReturn(new OrderService.Submission(existingOrder, true));
+
+        // when
+        ResponseEntity<UserOrder> response = orderController.submitOrder(principal, username, "key-1").join();
+
+        // then
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("true", response.getHeaders().getFirst(OrderController.REPLAYED_HEADER));
+        assertEquals(existingOrder, response.getBody());
+    }
+
+    @Test
+    void submitOrder_keyTooLong_400() {
+        // given
+        String key = String.join("", Collections.nCopies(IdempotencyStore.MAX_KEY_LENGTH + 1, "k"));
+
+        // when
+        ResponseEntity<UserOrder> response = orderController.submitOrder(principal, "testUser", key).join();
+
+        // then
+        verifyNoInteractions(orderService);
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+    }
+
+    @Test
+    void submitOrder_cartNotFound_404() {
+        // given
+        when(orderService.submit("testUser", 1L, null)).thenReturn(null);
+
+        // when
+        ResponseEntity<UserOrder> response = orderController.submitOrder(principal, "testUser", null).join();
+
+        // then
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+        assertNull(response.getBody());
+    }
+
+    @Test
+    void submitOrder_otherUsername_403() {
+        // when
+        ResponseEntity<UserOrder> response = orderController.submitOrder(principal, "otherUser", null).join();
+
+        // then
+        verifyNoInteractions(orderService);
+        assertEquals(HttpStatus.FORBIDDEN, response.getStatusCode());
+    }
+
     @Test
     void getOrdersForUser() {
         // given
         String username = "testUser";
         UserOrder expectedOrder = UserOrder.createFromCart(user.getCart());
-        when(userRepository.findByUsername(username)).thenReturn(user);
-        when(orderRepository.findByUser(user)).thenReturn(Collections.singletonList(expectedOrder));
+        when(orderRepository.findByUserId(1L)).thenReturn(Collections.singletonList(expectedOrder));
 
         // when
-        ResponseEntity<List<UserOrder>> response = orderController.getOrdersForUser(username);
+        ResponseEntity<List<UserOrder>> response = orderController.getOrdersForUser(principal, username).join();
 
         // then
-        verify(orderRepository, times(1)).findByUser(user);
+        verify(orderRepository, times(1)).findByUserId(1L);
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertEquals(Collections.singletonList(expectedOrder), response.getBody());
     }
 
-}
\ No newline at end of file
+    @Test
+    void getOrderHistoryPage() {
+        // given
+        String username = "testUser";
+        UserOrder newer = UserOrder.createFromCart(user.getCart());
+        newer.setId(5L);
+        UserOrder older = UserOrder.createFromCart(user.getCart());
+        older.setId(3L);
+        when(orderRepository.findPageByUserId(1L, Long.MAX_VALUE, PageRequest.of(0, 2)))
+                .thenReturn(Arrays.asList(newer, older));
+
+        // when
+        ResponseEntity<OrderPage<?>> response = orderController.getOrderHistoryPage(principal, username, null, 2, false).join();
+
+        // then
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertNotNull(response.getBody());
+        assertEquals(Arrays.asList(newer, older), response.getBody().getOrders());
+        assertEquals(3L, response.getBody().getNextCursor());
+    }
+
+    @Test
+    void getOrderHistoryPage_summary() {
+        // given
+        String username = "testUser";
+        OrderSummary summary = new OrderSummary(2L, new BigDecimal("4.40"));
+        when(orderRepository.findSummaryPageByUserId(1L, 3L, PageRequest.of(0, 20)))
+                .thenReturn(Collections.singletonList(summary));
+
+        // when
+        ResponseEntity<OrderPage<?>> response = orderController.getOrderHistoryPage(principal, username, 3L, 20, true).join();
+
+        // then
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertNotNull(response.getBody());
+        assertEquals(Collections.singletonList(summary), response.getBody().getOrders());
+        assertNull(response.getBody().getNextCursor());
+        verify(orderRepository, never()).findPageByUserId(anyLong(), any(), any());
+    }
+
+    @Test
+    void getOrderHistoryPage_otherUsername_403() {
+        // when
+        ResponseEntity<OrderPage<?>> response = orderController.getOrderHistoryPage(principal, "otherUser", null, 20,
+                false).join();
+
+        // then
+        verifyNoInteractions(orderRepository);
+        assertEquals(HttpStatus.FORBIDDEN, response.getStatusCode());
+        assertNull(response.getBody());
+    }
+
+}
@@ -0,0 +1,114 @@
+package com.example.demo.controllers;
+
+import com.example.demo.SqlStatementCounter;
+import com.example.demo.TestTokens;
+import com.example.demo.model.persistence.Cart;
+import com.example.demo.model.persistence.User;
+import com.example.demo.model.persistence.UserOrder;
+import com.example.demo.model.persistence.repositories.ItemRepository;
+import com.example.demo.model.persistence.repositories.OrderRepository;
+import com.example.demo.model.persistence.repositories.UserRepository;
+import com.example.demo.security.SecurityConstants;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Checks that a page of order history costs a fixed number of statements however many orders
+ * and lines the page holds.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@Import(SqlStatementCounter.class)
+class OrderHistoryStatementCountTest {
+
+    private static final AtomicInteger USER_SEQUENCE = new AtomicInteger();
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private SqlStatementCounter sqlStatementCounter;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    private String username;
+    private String token;
+
+    @BeforeEach
+    void setUp() {
+        // setup user with five two-line orders
+        username = "historyUser" + USER_SEQUENCE.incrementAndGet();
+
+        Cart cart = new Cart();
+        cart.addItem(itemRepository.findById(1L).get(), 2);
+        cart.addItem(itemRepository.findById(2L).get(), 1);
+
+        User user = new User();
+        user.setUsername(username);
+        user.setPassword("hashedPassword");
+        user.setCart(cart);
+        user = userRepository.save(user);
+        cart.setUser(user);
+        token = TestTokens.bearer(user);
+
+        for (int i = 0; i < 5; i++) {
+            orderRepository.save(UserOrder.createFromCart(cart));
+        }
+    }
+
+    @Test
+    void getOrderHistoryPage_batchFetchesLines() throws Exception {
+        // given
+        sqlStatementCounter.reset();
+
+        // when / then
+        mockMvc.perform(get("/api/order/history/" + username + "/page").param("size", "4")
+                .header(SecurityConstants.HEADER_STRING, token))
+                .andExpect(request().asyncNotStarted())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.orders.length()").value(4))
+                .andExpect(jsonPath("$.orders[0].lines.length()").value(2))
+                .andExpect(jsonPath("$.orders[3].lines.length()").value(2));
+
+        // then: order page and one batch for all lines of the page; the user id comes from the token
+        assertEquals(2, sqlStatementCounter.selectCount(), sqlStatementCounter.getStatements().toString());
+    }
+
+    @Test
+    void getOrderHistoryPage_summary_singleQueryForOrders() throws Exception {
+        // given
+        sqlStatementCounter.reset();
+
+        // when / then
+        mockMvc.perform(get("/api/order/history/" + username + "/page").param("size", "4")
+                .param("summary", "true")
+                .header(SecurityConstants.HEADER_STRING, token))
+                .andExpect(request().asyncNotStarted())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.orders.length()").value(4))
+                .andExpect(jsonPath("$.orders[0].lines").doesNotExist());
+
+        // then: order summaries only
+        assertEquals(1, sqlStatementCounter.selectCount(), sqlStatementCounter.getStatements().toString());
+    }
+}
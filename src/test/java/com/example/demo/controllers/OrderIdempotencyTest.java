@@ -0,0 +1,124 @@
+package com.example.demo.controllers;
+
+import com.example.demo.TestTokens;
+import com.example.demo.model.persistence.Cart;
+import com.example.demo.model.persistence.User;
+import com.example.demo.model.persistence.repositories.ItemRepository;
+import com.example.demo.model.persistence.repositories.UserRepository;
+import com.example.demo.security.SecurityConstants;
+import com.example.demo.service.JdbcIdempotencyStore;
+import com.jayway.jsonpath.JsonPath;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.ResultMatcher;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Retries of an order submission with the database-backed idempotency store.
+ */
+@SpringBootTest(properties = "order.idempotency.store=jdbc")
+@AutoConfigureMockMvc
+class OrderIdempotencyTest {
+
+    private static final AtomicInteger USER_SEQUENCE = new AtomicInteger();
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private String username;
+    private Long userId;
+    private String token;
+
+    @BeforeEach
+    void setUp() {
+        username = "idempotentUser" + USER_SEQUENCE.incrementAndGet();
+
+        Cart cart = new Cart();
+        cart.addItem(itemRepository.findById(1L).get(), 2);
+        cart.addItem(itemRepository.findById(2L).get(), 1);
+
+        User user = new User();
+        user.setUsername(username);
+        user.setPassword("hashedPassword");
+        user.setCart(cart);
+        user = userRepository.save(user);
+        userId = user.getId();
+
+        token = TestTokens.bearer(user);
+    }
+
+    @Test
+    void submitOrder_retriedWithSameKey_createsOneOrder() throws Exception {
+        // when
+        Number first = submit("retry-1", status().isCreated());
+        Number replayed = submit("retry-1", status().isOk(), header().string(OrderController.REPLAYED_HEADER, "true"));
+        Number other = submit("retry-2", status().isCreated());
+
+        // then
+        assertEquals(first.longValue(), replayed.longValue());
+        assertEquals(2, jdbcTemplate.queryForObject(
+                "select count(*) from user_order where user_id = ?", Integer.class, userId));
+        // the first order took the cart lines, the second one found the cart already empty
+        assertEquals(2, countLines(first));
+        assertEquals(0, countLines(other));
+    }
+
+    @Test
+    void find_expiredKey_forgotten() {
+        // given
+        Instant now = Instant.parse("2021-08-01T00:00:00Z");
+        new JdbcIdempotencyStore(jdbcTemplate, 1000L, Clock.fixed(now, ZoneOffset.UTC)).put("expiringUser", "key", 1L);
+
+        // when
+        Long beforeExpiry = new JdbcIdempotencyStore(jdbcTemplate, 1000L,
+                Clock.fixed(now.plusMillis(999L), ZoneOffset.UTC)).find("expiringUser", "key");
+        Long afterExpiry = new JdbcIdempotencyStore(jdbcTemplate, 1000L,
+                Clock.fixed(now.plusMillis(1000L), ZoneOffset.UTC)).find("expiringUser", "key");
+
+        // then
+        assertEquals(1L, beforeExpiry);
+        assertNull(afterExpiry);
+    }
+
+    private int countLines(Number orderId) {
+        return jdbcTemplate.queryForObject("select count(*) from user_order_line where user_order_id = ?",
+                Integer.class, orderId.longValue());
+    }
+
+    private Number submit(String key, ResultMatcher... expectations) throws Exception {
+        ResultActions response = mockMvc.perform(post("/api/order/submit/" + username)
+                .header(SecurityConstants.HEADER_STRING, token)
+                .header(OrderController.IDEMPOTENCY_KEY_HEADER, key))
+                .andExpect(request().asyncNotStarted());
+        for (ResultMatcher expectation : expectations) {
+            response.andExpect(expectation);
+        }
+        return JsonPath.read(response.andReturn().getResponse().getContentAsString(), "$.id");
+    }
+}
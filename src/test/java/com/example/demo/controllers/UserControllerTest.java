@@ -5,14 +5,17 @@ import com.example.demo.model.persistence.User;
 import com.example.demo.model.persistence.repositories.CartRepository;
 import com.example.demo.model.persistence.repositories.UserRepository;
 import com.example.demo.model.requests.CreateUserRequest;
+import com.example.demo.service.RequestExecutor;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.userdetails.UserCache;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 
 import java.util.Optional;
@@ -34,6 +37,12 @@ class UserControllerTest {
     @Mock
     private BCryptPasswordEncoder bCryptPasswordEncoder;
 
+    @Mock
+    private UserCache userCache;
+
+    @Spy
+    private RequestExecutor requestExecutor = RequestExecutor.blocking();
+
     @InjectMocks
     private UserController userController;
 
@@ -59,7 +68,7 @@ class UserControllerTest {
         when(userRepository.findById(anyLong())).thenReturn(Optional.of(user));
 
         // when
-        ResponseEntity<User> response = userController.findById(userId);
+        ResponseEntity<User> response = userController.findById(userId).join();
 
         // then
         assertEquals(HttpStatus.OK, response.getStatusCode());
@@ -73,7 +82,7 @@ class UserControllerTest {
         when(userRepository.findByUsername(anyString())).thenReturn(user);
 
         // when
-        ResponseEntity<User> response = userController.findByUserName(username);
+        ResponseEntity<User> response = userController.findByUserName(username).join();
 
         // then
         assertEquals(HttpStatus.OK, response.getStatusCode());
@@ -87,7 +96,7 @@ class UserControllerTest {
         when(userRepository.findByUsername(username)).thenReturn(null);
 
         // when
-        ResponseEntity<User> response = userController.findByUserName(username);
+        ResponseEntity<User> response = userController.findByUserName(username).join();
 
         // then
         assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
@@ -106,7 +115,7 @@ class UserControllerTest {
         when(userRepository.save(any(User.class))).thenReturn(user);
 
         // when
-        ResponseEntity<User> response = userController.createUser(createUserRequest);
+        ResponseEntity<User> response = userController.createUser(createUserRequest).join();
 
         // then
         assertEquals(HttpStatus.CREATED, response.getStatusCode());
@@ -122,7 +131,7 @@ class UserControllerTest {
         createUserRequest.setConfirmPassword("passwor");
 
         // when
-        ResponseEntity<User> response = userController.createUser(createUserRequest);
+        ResponseEntity<User> response = userController.createUser(createUserRequest).join();
 
         // then
         assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
@@ -138,11 +147,11 @@ class UserControllerTest {
         createUserRequest.setConfirmPassword("passwors");
 
         // when
-        ResponseEntity<User> response = userController.createUser(createUserRequest);
+        ResponseEntity<User> response = userController.createUser(createUserRequest).join();
 
         // then
         assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
         assertNull(response.getBody());
     }
 
-}
\ No newline at end of file
+}
\ No newline at end of file
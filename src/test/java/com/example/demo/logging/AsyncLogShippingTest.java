@@ -0,0 +1,131 @@
+package com.example.demo.logging;
+
+import com.sun.net.httpserver.HttpServer;
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.core.LoggerContext;
+import org.apache.logging.log4j.core.async.EventRoute;
+import org.apache.logging.log4j.core.config.ConfigurationSource;
+import org.apache.logging.log4j.core.config.xml.XmlConfiguration;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Ships log events through the same Async + DroppingQueueFullPolicy pipeline as log4j2.xml, but to a
+ * local stub HTTP endpoint that answers slowly, standing in for a struggling Splunk HEC.
+ */
+class AsyncLogShippingTest {
+
+    private static final long SINK_DELAY_MILLIS = 300L;
+    private static final int BUFFER_SIZE = 8;
+
+    private HttpServer sink;
+    private AtomicInteger received;
+    private CountDownLatch firstPost;
+    private LoggerContext loggerContext;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        received = new AtomicInteger();
+        firstPost = new CountDownLatch(1);
+        sink = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        sink.createContext("/services/collector", exchange -> {
+            try (InputStream body = exchange.getRequestBody()) {
+                while (body.read() != -1) {
+                    // drain
+                }
+                firstPost.countDown();
+                Thread.sleep(SINK_DELAY_MILLIS);
+                received.incrementAndGet();
+                exchange.sendResponseHeaders(200, -1);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                exchange.close();
+            }
+        });
+        sink.start();
+
+        String url = "http://localhost:" + sink.getAddress().getPort() + "/services/collector";
+        String xml = "<Configuration>"
+                + "<Appenders>"
+                + "<Http name=\"sink\" url=\"" + url + "\" readTimeoutMillis=\"5000\"><PatternLayout pattern=\"%m\"/></Http>"
+                + "<Async name=\"asyncSplunk\" bufferSize=\"" + BUFFER_SIZE + "\" blocking=\"true\"><AppenderRef ref=\"sink\"/></Async>"
+                + "</Appenders>"
+                + "<Loggers><Root level=\"info\"><AppenderRef ref=\"asyncSplunk\"/></Root></Loggers>"
+                + "</Configuration>";
+
+        loggerContext = new LoggerContext("async-log-shipping-test");
+        ConfigurationSource source = new ConfigurationSource(new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8)));
+        loggerContext.start(new XmlConfiguration(loggerContext, source));
+    }
+
+    @AfterEach
+    void tearDown() {
+        loggerContext.stop(5, TimeUnit.SECONDS);
+        sink.stop(0);
+    }
+
+    @Test
+    void logging_slowSink_callerDoesNotWaitForSink() throws InterruptedException {
+        // given
+        Logger log = loggerContext.getLogger("com.example.demo.controllers.UserController");
+
+        // when
+        long start = System.nanoTime();
+        for (int i = 0; i < 100; i++) {
+            log.info("Start of method createUser for username - user{}", i);
+        }
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        // then
+        assertTrue(elapsedMillis < SINK_DELAY_MILLIS,
+                "100 log calls took " + elapsedMillis + " ms against a sink answering in " + SINK_DELAY_MILLIS + " ms");
+        assertTrue(firstPost.await(5, TimeUnit.SECONDS), "events never reached the sink");
+    }
+
+    @Test
+    void logging_bufferFull_dropsAndReportsPipelineState() throws InterruptedException {
+        // given
+        Logger log = loggerContext.getLogger("com.example.demo.controllers.UserController");
+        LoggingPipelineMetrics metrics = new LoggingPipelineMetrics(loggerContext, "asyncSplunk");
+        long droppedBefore = metrics.getDroppedEvents();
+
+        // when
+        log.info("first");
+        assertTrue(firstPost.await(5, TimeUnit.SECONDS), "events never reached the sink");
+        for (int i = 0; i < 50; i++) {
+            log.info("burst {}", i);
+        }
+
+        // then
+        assertEquals(BUFFER_SIZE, metrics.getQueueCapacity());
+        assertEquals(BUFFER_SIZE, metrics.getQueueDepth());
+        assertTrue(metrics.getDroppedEvents() - droppedBefore >= 50 - BUFFER_SIZE);
+    }
+
+    @Test
+    void getRoute_dropsOnlyUpToThreshold() {
+        // given
+        DroppingQueueFullPolicy policy = new DroppingQueueFullPolicy(Level.WARN);
+        long otherThread = Thread.currentThread().getId() + 1;
+
+        // when / then
+        assertEquals(EventRoute.DISCARD, policy.getRoute(otherThread, Level.INFO));
+        assertEquals(EventRoute.DISCARD, policy.getRoute(otherThread, Level.WARN));
+        assertEquals(EventRoute.ENQUEUE, policy.getRoute(otherThread, Level.ERROR));
+        assertEquals(EventRoute.DISCARD, policy.getRoute(Thread.currentThread().getId(), Level.ERROR));
+    }
+}
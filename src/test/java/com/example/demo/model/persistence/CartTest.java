@@ -0,0 +1,158 @@
+package com.example.demo.model.persistence;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CartTest {
+
+    private Item itemOne;
+    private Item itemTwo;
+    private Cart cart;
+
+    @BeforeEach
+    void setUp() {
+        itemOne = new Item();
+        itemOne.setId(1L);
+        itemOne.setName("itemOne");
+        itemOne.setPrice(new BigDecimal("1.10"));
+        itemOne.setDescription("Item One");
+
+        itemTwo = new Item();
+        itemTwo.setId(2L);
+        itemTwo.setName("itemTwo");
+        itemTwo.setPrice(new BigDecimal("2.20"));
+        itemTwo.setDescription("Item Two");
+
+        cart = new Cart();
+    }
+
+    @Test
+    void addItem_sameItemTwice_singleLine() {
+        // when
+        cart.addItem(itemOne, 10_000);
+        cart.addItem(itemOne);
+
+        // then
+        assertEquals(1, cart.getLines().size());
+        assertEquals(10_001, cart.getLines().get(0).getQuantity());
+        assertEquals(new BigDecimal("11001.10"), cart.getTotal());
+    }
+
+    @Test
+    void removeItem_partialQuantity_keepsLine() {
+        // given
+        cart.addItem(itemOne, 3);
+        cart.addItem(itemTwo, 1);
+
+        // when
+        cart.removeItem(itemOne, 2);
+
+        // then
+        assertEquals(2, cart.getLines().size());
+        assertEquals(1, cart.getLines().get(0).getQuantity());
+        assertEquals(new BigDecimal("3.30"), cart.getTotal());
+    }
+
+    @Test
+    void removeItem_moreThanInCart_removesLineAndOnlyItsUnits() {
+        // given
+        cart.addItem(itemOne, 2);
+        cart.addItem(itemTwo, 1);
+
+        // when
+        cart.removeItem(itemOne, 5);
+
+        // then
+        assertEquals(1, cart.getLines().size());
+        assertEquals(itemTwo, cart.getLines().get(0).getItem());
+        assertEquals(new BigDecimal("2.20"), cart.getTotal());
+    }
+
+    @Test
+    void removeItem_notInCart_totalUnchanged() {
+        // given
+        cart.addItem(itemOne, 1);
+
+        // when
+        cart.removeItem(itemTwo, 1);
+
+        // then
+        assertEquals(1, cart.getLines().size());
+        assertEquals(new BigDecimal("1.10"), cart.getTotal());
+    }
+
+    @Test
+    void createFromCart_copiesLines() {
+        // given
+        cart.addItem(itemOne, 2);
+        cart.addItem(itemTwo, 1);
+
+        // when
+        UserOrder order = UserOrder.createFromCart(cart);
+        cart.removeItem(itemOne, 2);
+
+        // then
+        assertEquals(2, order.getLines().size());
+        assertEquals(2, order.getLines().get(0).getQuantity());
+        assertNotSame(cart.getLines(), order.getLines());
+        assertEquals(new BigDecimal("4.40"), order.getTotal());
+    }
+
+    @Test
+    void createFromCart_totalRecomputedFromLines() {
+        // given
+        cart.addItem(itemOne, 2);
+        cart.setTotalCents(1L);
+
+        // when
+        UserOrder order = UserOrder.createFromCart(cart);
+
+        // then
+        assertEquals(220L, order.getTotalCents());
+    }
+
+    @Test
+    void addItem_totalKeptInCents() {
+        // when
+        cart.addItem(itemOne, 3);
+        cart.addItem(itemTwo, 2);
+        cart.removeItem(itemOne, 1);
+
+        // then
+        assertEquals(660L, cart.getTotalCents());
+        assertEquals(new BigDecimal("6.60"), cart.getTotal());
+        assertEquals(new BigDecimal("1.10"), cart.getLines().get(0).getUnitPrice());
+    }
+
+    @Test
+    void addItem_quantityOverflow_cartUnchanged() {
+        // given
+        cart.addItem(itemOne, Integer.MAX_VALUE);
+        long totalCents = cart.getTotalCents();
+
+        // when / then
+        assertThrows(ArithmeticException.class, () -> cart.addItem(itemOne, 1));
+        assertEquals(Integer.MAX_VALUE, cart.getLines().get(0).getQuantity());
+        assertEquals(totalCents, cart.getTotalCents());
+    }
+
+    @Test
+    void addItem_totalOverflow_cartUnchanged() {
+        // given
+        Item expensive = new Item();
+        expensive.setId(3L);
+        expensive.setName("expensive");
+        expensive.setPrice(new BigDecimal("10000000000000000.00"));
+        expensive.setDescription("Expensive Item");
+        cart.addItem(itemOne, 1);
+
+        // when / then
+        assertThrows(ArithmeticException.class, () -> cart.addItem(expensive, 10));
+        assertEquals(1, cart.getLines().size());
+        assertEquals(110L, cart.getTotalCents());
+    }
+}
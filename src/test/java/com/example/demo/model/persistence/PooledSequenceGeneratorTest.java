@@ -0,0 +1,72 @@
+package com.example.demo.model.persistence;
+
+import com.example.demo.SqlStatementCounter;
+import com.example.demo.model.persistence.repositories.ItemRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Ids are read from the sequences in blocks, so new entities need no round trip for their key and
+ * their inserts are batched.
+ */
+@SpringBootTest
+@Import(SqlStatementCounter.class)
+class PooledSequenceGeneratorTest {
+
+    private static final int ITEMS = 120;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private SqlStatementCounter sqlStatementCounter;
+
+    private List<Item> saved = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        itemRepository.deleteAll(saved);
+    }
+
+    @Test
+    void save_manyItems_readsOneSequenceValuePerBlock() {
+        // given
+        List<Item> items = new ArrayList<>();
+        for (int i = 0; i < ITEMS; i++) {
+            Item item = new Item();
+            item.setName("Sequence Item " + i);
+            item.setPrice(new BigDecimal("1.00"));
+            item.setDescription("Item with a pooled id");
+            items.add(item);
+        }
+        sqlStatementCounter.reset();
+
+        // when
+        saved = transactionTemplate.execute(status -> itemRepository.saveAll(items));
+
+        // then: 120 ids need at most 4 sequence reads with blocks of 50, and 120 rows 3 batches
+        String statements = sqlStatementCounter.getStatements().toString();
+        long sequenceReads = sqlStatementCounter.count("call next value for item_seq");
+        assertTrue(sequenceReads >= 1 && sequenceReads <= 4, statements);
+        assertEquals(3, sqlStatementCounter.count("insert into item"), statements);
+
+        Set<Long> ids = saved.stream().map(Item::getId).collect(Collectors.toSet());
+        assertEquals(ITEMS, ids.size());
+        assertTrue(ids.stream().allMatch(id -> id > 2), "seeded item ids must not be reused: " + ids);
+    }
+}
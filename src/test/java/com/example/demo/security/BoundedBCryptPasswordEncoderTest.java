@@ -0,0 +1,75 @@
+package com.example.demo.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BoundedBCryptPasswordEncoderTest {
+
+    private ThreadPoolExecutor executor;
+    private BoundedBCryptPasswordEncoder encoder;
+
+    @BeforeEach
+    void setUp() {
+        executor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(1));
+        encoder = new BoundedBCryptPasswordEncoder(5, executor, 5_000L, new SimpleMeterRegistry());
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void encode_storesConfiguredCostWithHash() {
+        // when
+        String hash = encoder.encode("password");
+
+        // then
+        assertTrue(hash.startsWith("$2a$05$"));
+        assertTrue(encoder.matches("password", hash));
+        assertFalse(encoder.matches("wrongPassword", hash));
+    }
+
+    @Test
+    void upgradeEncoding_costDiffersInEitherDirection_returnsTrue() {
+        // given
+        String cheaper = new BCryptPasswordEncoder(4).encode("password");
+        String current = new BCryptPasswordEncoder(5).encode("password");
+        String dearer = new BCryptPasswordEncoder(6).encode("password");
+
+        // when / then
+        assertTrue(encoder.upgradeEncoding(cheaper));
+        assertFalse(encoder.upgradeEncoding(current));
+        assertTrue(encoder.upgradeEncoding(dearer));
+        assertFalse(encoder.upgradeEncoding("plainText"));
+        assertFalse(encoder.upgradeEncoding(null));
+    }
+
+    @Test
+    void encode_executorSaturated_throwsUnavailable() throws InterruptedException {
+        // given
+        CountDownLatch release = new CountDownLatch(1);
+        executor.submit(() -> {
+            release.await();
+            return null;
+        });
+        executor.submit(() -> null);
+
+        // when / then
+        try {
+            assertThrows(PasswordHashingUnavailableException.class, () -> encoder.encode("password"));
+        } finally {
+            release.countDown();
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.demo.security;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.core.CredentialsContainer;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.time.Clock;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class BoundedUserCacheTest {
+
+    @Mock
+    private Clock clock;
+
+    private BoundedUserCache userCache;
+
+    @BeforeEach
+    void setUp() {
+        userCache = new BoundedUserCache(10, 1_000L, clock);
+        when(clock.millis()).thenReturn(0L);
+        userCache.putUserInCache(User.withUsername("testUser").password("hash").authorities("USER").build());
+    }
+
+    @Test
+    void getUserFromCache_credentialsErasedByCaller_cachedCopyKeepsPassword() {
+        // given: the provider erases the password of the user it authenticated
+        UserDetails first = userCache.getUserFromCache("testUser");
+        ((CredentialsContainer) first).eraseCredentials();
+
+        // when
+        UserDetails second = userCache.getUserFromCache("testUser");
+
+        // then
+        assertNull(first.getPassword());
+        assertEquals("hash", second.getPassword());
+        assertEquals(2, userCache.getHitCount());
+    }
+
+    @Test
+    void getUserFromCache_afterTtl_returnsNull() {
+        // given
+        when(clock.millis()).thenReturn(1_000L);
+
+        // when
+        UserDetails user = userCache.getUserFromCache("testUser");
+
+        // then
+        assertNull(user);
+        assertEquals(1, userCache.getMissCount());
+    }
+
+    @Test
+    void removeUserFromCache_cachedUser_nextLookupMisses() {
+        // when
+        userCache.removeUserFromCache("testUser");
+
+        // then
+        assertNull(userCache.getUserFromCache("testUser"));
+        assertEquals(0, userCache.size());
+    }
+}
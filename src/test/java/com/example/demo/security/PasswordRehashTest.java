@@ -0,0 +1,72 @@
+package com.example.demo.security;
+
+import com.example.demo.model.persistence.User;
+import com.example.demo.model.persistence.repositories.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Logs in users whose stored hashes were made with a cheaper or dearer BCrypt cost than the
+ * configured one and checks that the hash is rewritten with the configured cost.
+ */
+@SpringBootTest(properties = "security.bcrypt.strength=5")
+@AutoConfigureMockMvc
+class PasswordRehashTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void login_cheaperStoredCost_upgradesHash() throws Exception {
+        // given
+        saveUser("rehashUp", new BCryptPasswordEncoder(4).encode("password123"));
+
+        // when
+        login("rehashUp", "password123");
+
+        // then
+        String password = userRepository.findByUsername("rehashUp").getPassword();
+        assertTrue(password.startsWith("$2a$05$"));
+        assertTrue(new BCryptPasswordEncoder().matches("password123", password));
+    }
+
+    @Test
+    void login_dearerStoredCost_downgradesHash() throws Exception {
+        // given
+        saveUser("rehashDown", new BCryptPasswordEncoder(6).encode("password123"));
+
+        // when
+        login("rehashDown", "password123");
+
+        // then
+        assertTrue(userRepository.findByUsername("rehashDown").getPassword().startsWith("$2a$05$"));
+    }
+
+    private void saveUser(String username, String hash) {
+        User user = new User();
+        user.setUsername(username);
+        user.setPassword(hash);
+        userRepository.save(user);
+    }
+
+    private void login(String username, String password) throws Exception {
+        mockMvc.perform(post("/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"username\":\"" + username + "\",\"password\":\"" + password + "\"}"))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(SecurityConstants.HEADER_STRING));
+    }
+}
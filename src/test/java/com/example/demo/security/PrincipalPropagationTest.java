@@ -0,0 +1,103 @@
+package com.example.demo.security;
+
+import com.auth0.jwt.JWT;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.Date;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.auth0.jwt.algorithms.Algorithm.HMAC512;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Logs in and uses the issued token: cart and order endpoints act on the user named by the token, and
+ * naming anyone else in the request is refused.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class PrincipalPropagationTest {
+
+    private static final AtomicInteger USER_SEQUENCE = new AtomicInteger();
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    private String username;
+    private String token;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        username = "principalUser" + USER_SEQUENCE.incrementAndGet();
+        mockMvc.perform(post("/api/user/create")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"username\":\"" + username + "\",\"password\":\"password123\","
+                                + "\"confirmPassword\":\"password123\"}"))
+                .andExpect(request().asyncNotStarted())
+                .andExpect(status().isCreated());
+
+        token = mockMvc.perform(post("/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"username\":\"" + username + "\",\"password\":\"password123\"}"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(SecurityConstants.HEADER_STRING);
+        assertNotNull(token);
+    }
+
+    @Test
+    void addToCart_usernameOmitted_usesTokenUser() throws Exception {
+        // when / then
+        mockMvc.perform(post("/api/cart/addToCart")
+                        .header(SecurityConstants.HEADER_STRING, token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"itemId\":1,\"quantity\":2}"))
+                .andExpect(request().asyncNotStarted())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.user.username").value(username))
+                .andExpect(jsonPath("$.lines[0].quantity").value(2));
+    }
+
+    @Test
+    void addToCart_otherUsername_forbidden() throws Exception {
+        // when / then
+        mockMvc.perform(post("/api/cart/addToCart")
+                        .header(SecurityConstants.HEADER_STRING, token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"username\":\"someoneElse\",\"itemId\":1,\"quantity\":2}"))
+                .andExpect(request().asyncNotStarted())
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    void orderHistory_otherUsername_forbidden() throws Exception {
+        // when / then
+        mockMvc.perform(get("/api/order/history/someoneElse")
+                        .header(SecurityConstants.HEADER_STRING, token))
+                .andExpect(request().asyncNotStarted())
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    void orderHistory_tokenWithoutIds_unauthorized() throws Exception {
+        // given: a token as issued before the id claims were added
+        String legacyToken = SecurityConstants.TOKEN_PREFIX + JWT.create()
+                .withSubject(username)
+                .withExpiresAt(new Date(System.currentTimeMillis() + SecurityConstants.EXPIRATION_TIME))
+                .sign(HMAC512(SecurityConstants.SECRET.getBytes()));
+
+        // when / then
+        mockMvc.perform(get("/api/order/history/" + username)
+                        .header(SecurityConstants.HEADER_STRING, legacyToken))
+                .andExpect(status().isUnauthorized());
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.demo.security;
+
+import com.example.demo.model.persistence.User;
+import com.example.demo.model.persistence.repositories.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Logs in repeatedly and checks that the user is looked up once, that a wrong password is still
+ * rejected for a cached user and that a changed password is used by the next login.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class UserCacheLoginTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private BoundedUserCache userCache;
+
+    @Autowired
+    private BCryptPasswordEncoder bCryptPasswordEncoder;
+
+    @Autowired
+    private UserDetailsServiceImpl userDetailsService;
+
+    @Test
+    void login_repeated_servedFromCache() throws Exception {
+        // given
+        saveUser("cachedLogin", "password123");
+        login("cachedLogin", "password123").andExpect(status().isOk());
+        long hits = userCache.getHitCount();
+
+        // when
+        login("cachedLogin", "password123")
+                .andExpect(status().isOk())
+                .andExpect(header().exists(SecurityConstants.HEADER_STRING));
+
+        // then
+        assertEquals(hits + 1, userCache.getHitCount());
+    }
+
+    @Test
+    void login_wrongPasswordForCachedUser_unauthorized() throws Exception {
+        // given
+        saveUser("cachedWrongPassword", "password123");
+        login("cachedWrongPassword", "password123").andExpect(status().isOk());
+
+        // when / then
+        login("cachedWrongPassword", "password124").andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void login_afterPasswordChange_oldPasswordRejected() throws Exception {
+        // given
+        User user = saveUser("cachedPasswordChange", "password123");
+        login("cachedPasswordChange", "password123").andExpect(status().isOk());
+
+        // when
+        userDetailsService.updatePassword(userDetailsService.loadUserByUsername(user.getUsername()),
+                bCryptPasswordEncoder.encode("password456"));
+
+        // then
+        assertNull(userCache.getUserFromCache("cachedPasswordChange"));
+        login("cachedPasswordChange", "password123").andExpect(status().isUnauthorized());
+        login("cachedPasswordChange", "password456").andExpect(status().isOk());
+    }
+
+    private User saveUser(String username, String password) {
+        User user = new User();
+        user.setUsername(username);
+        user.setPassword(bCryptPasswordEncoder.encode(password));
+        return userRepository.save(user);
+    }
+
+    private ResultActions login(String username, String password) throws Exception {
+        return mockMvc.perform(post("/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"username\":\"" + username + "\",\"password\":\"" + password + "\"}"));
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.demo.security;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.exceptions.JWTVerificationException;
+import com.auth0.jwt.interfaces.DecodedJWT;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Date;
+
+import static com.auth0.jwt.algorithms.Algorithm.HMAC512;
+import static org.junit.jupiter.api.Assertions.*;
+
+class VerifiedTokenCacheTest {
+
+    private VerifiedTokenCache verifiedTokenCache;
+
+    @BeforeEach
+    void setUp() {
+        verifiedTokenCache = new VerifiedTokenCache(10);
+    }
+
+    @Test
+    void verify_sameTokenTwice_verifiedOnce() {
+        // given
+        String token = sign("testUser", SecurityConstants.SECRET);
+
+        // when
+        DecodedJWT first = verifiedTokenCache.verify(token);
+        DecodedJWT second = verifiedTokenCache.verify(token);
+
+        // then
+        assertEquals("testUser", first.getSubject());
+        assertSame(first, second);
+        assertEquals(1, verifiedTokenCache.getMissCount());
+        assertEquals(1, verifiedTokenCache.getHitCount());
+    }
+
+    @Test
+    void verify_invalidSignature_throwsAndIsNotCached() {
+        // given
+        String token = sign("testUser", "notoursecretkey");
+
+        // when / then
+        assertThrows(JWTVerificationException.class, () -> verifiedTokenCache.verify(token));
+        assertThrows(JWTVerificationException.class, () -> verifiedTokenCache.verify(token));
+        assertEquals(0, verifiedTokenCache.size());
+        assertEquals(0, verifiedTokenCache.getHitCount());
+    }
+
+    private static String sign(String username, String secret) {
+        return JWT.create()
+                .withSubject(username)
+                .withExpiresAt(new Date(System.currentTimeMillis() + SecurityConstants.EXPIRATION_TIME))
+                .sign(HMAC512(secret.getBytes()));
+    }
+}
@@ -0,0 +1,222 @@
+package com.example.demo.service;
+
+import com.example.demo.model.persistence.Cart;
+import com.example.demo.model.persistence.Item;
+import com.example.demo.model.requests.CartOperation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CartWriteCoalescerTest {
+
+    private static final int CALLERS = 5;
+
+    @Mock
+    private CartService cartService;
+
+    private Item item;
+    private Cart cart;
+
+    @BeforeEach
+    void setUp() {
+        item = new Item();
+        item.setId(1L);
+        item.setName("itemOne");
+        item.setPrice(BigDecimal.valueOf(1.1));
+        item.setDescription("Item One");
+
+        cart = new Cart();
+        cart.setId(1L);
+    }
+
+    @Test
+    void apply_noConcurrentCaller_writesWithoutWaitingForWindow() {
+        // given
+        CartWriteCoalescer coalescer = new CartWriteCoalescer(cartService, new OptimisticRetry(1, 0), 60_000, 10_000);
+        when(cartService.applyOperations(eq(1L), any(), anyMap())).thenReturn(cart);
+
+        // when
+        Cart result = assertTimeoutPreemptively(Duration.ofSeconds(10),
+                () -> coalescer.apply(1L, operation(), items()));
+
+        // then
+        assertSame(cart, result);
+        verify(cartService, times(1)).applyOperations(eq(1L), any(), anyMap());
+    }
+
+    @Test
+    void apply_callersArrivingDuringWrite_mergedIntoOneWrite() throws Exception {
+        // given: the first write is held in flight while the other callers arrive
+        CartWriteCoalescer coalescer = new CartWriteCoalescer(cartService, new OptimisticRetry(1, 0), 500, 10_000);
+        CountDownLatch firstWriteStarted = new CountDownLatch(1);
+        CountDownLatch releaseFirstWrite = new CountDownLatch(1);
+        when(cartService.applyOperations(eq(1L), any(), anyMap()))
+                .thenAnswer(invocation -> {
+                    firstWriteStarted.countDown();
+                    releaseFirstWrite.await();
+                    return cart;
+                })
+                .thenReturn(cart);
+
+        // when
+        List<Cart> results = applyDuringFirstWrite(coalescer, firstWriteStarted, releaseFirstWrite);
+
+        // then: the first caller writes alone, every later caller sees the cart of one merged write
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<CartOperation>> operations = ArgumentCaptor.forClass(List.class);
+        verify(cartService, times(2)).applyOperations(eq(1L), operations.capture(), anyMap());
+        assertEquals(1, operations.getAllValues().get(0).size());
+        assertEquals(CALLERS - 1, operations.getAllValues().get(1).size());
+        for (Cart result : results) {
+            assertSame(cart, result);
+        }
+    }
+
+    @Test
+    void apply_windowDisabled_writesEveryCall() {
+        // given
+        CartWriteCoalescer coalescer = new CartWriteCoalescer(cartService, new OptimisticRetry(1, 0), 0, 10_000);
+        when(cartService.applyOperations(eq(1L), any(), anyMap())).thenReturn(cart);
+
+        // when
+        coalescer.apply(1L, operation(), items());
+        coalescer.apply(1L, operation(), items());
+
+        // then
+        verify(cartService, times(2)).applyOperations(eq(1L), any(), anyMap());
+    }
+
+    @Test
+    void apply_mergedWriteFails_everyCallerSeesFailure() throws Exception {
+        // given
+        CartWriteCoalescer coalescer = new CartWriteCoalescer(cartService, new OptimisticRetry(1, 0), 500, 10_000);
+        CountDownLatch firstWriteStarted = new CountDownLatch(1);
+        CountDownLatch releaseFirstWrite = new CountDownLatch(1);
+        when(cartService.applyOperations(eq(1L), any(), anyMap()))
+                .thenAnswer(invocation -> {
+                    firstWriteStarted.countDown();
+                    releaseFirstWrite.await();
+                    return cart;
+                })
+                .thenThrow(new ObjectOptimisticLockingFailureException(Cart.class, 1L));
+
+        // when
+        ExecutorService callers = Executors.newFixedThreadPool(CALLERS);
+        List<Future<Cart>> futures = new ArrayList<>();
+        try {
+            Future<Cart> first = callers.submit(() -> coalescer.apply(1L, operation(), items()));
+            assertTrue(firstWriteStarted.await(10, TimeUnit.SECONDS));
+            for (int i = 1; i < CALLERS; i++) {
+                futures.add(callers.submit(() -> coalescer.apply(1L, operation(), items())));
+            }
+            Thread.sleep(100);
+            releaseFirstWrite.countDown();
+
+            // then
+            assertSame(cart, first.get(10, TimeUnit.SECONDS));
+            for (Future<Cart> future : futures) {
+                Exception e = assertThrows(Exception.class, () -> future.get(10, TimeUnit.SECONDS));
+                assertTrue(e.getCause() instanceof UpdateConflictException, e.toString());
+            }
+        } finally {
+            callers.shutdownNow();
+        }
+        verify(cartService, times(2)).applyOperations(eq(1L), any(), anyMap());
+    }
+
+    @Test
+    void apply_joinedWriteTooSlow_callerGivesUpWithServiceUnavailable() throws Exception {
+        // given: the first write is held, so the second caller opens a window the third one joins
+        CartWriteCoalescer coalescer = new CartWriteCoalescer(cartService, new OptimisticRetry(1, 0), 2_000, 100);
+        CountDownLatch firstWriteStarted = new CountDownLatch(1);
+        CountDownLatch releaseFirstWrite = new CountDownLatch(1);
+        when(cartService.applyOperations(eq(1L), any(), anyMap()))
+                .thenAnswer(invocation -> {
+                    firstWriteStarted.countDown();
+                    releaseFirstWrite.await();
+                    return cart;
+                })
+                .thenReturn(cart);
+
+        // when
+        ExecutorService callers = Executors.newFixedThreadPool(3);
+        try {
+            Future<Cart> first = callers.submit(() -> coalescer.apply(1L, operation(), items()));
+            assertTrue(firstWriteStarted.await(10, TimeUnit.SECONDS));
+            Future<Cart> owner = callers.submit(() -> coalescer.apply(1L, operation(), items()));
+            Thread.sleep(100);
+            Future<Cart> joined = callers.submit(() -> coalescer.apply(1L, operation(), items()));
+
+            // then: the joined caller stops waiting long before the window closes
+            Exception e = assertThrows(Exception.class, () -> joined.get(1, TimeUnit.SECONDS));
+            assertTrue(e.getCause() instanceof ResponseStatusException, e.toString());
+            assertEquals(HttpStatus.SERVICE_UNAVAILABLE, ((ResponseStatusException) e.getCause()).getStatus());
+
+            releaseFirstWrite.countDown();
+            assertSame(cart, first.get(10, TimeUnit.SECONDS));
+            assertSame(cart, owner.get(10, TimeUnit.SECONDS));
+        } finally {
+            callers.shutdownNow();
+        }
+    }
+
+    /**
+     * Starts one caller, and while its write is in flight starts the others, which arrive well within
+     * the window of the write they join.
+     */
+    private List<Cart> applyDuringFirstWrite(CartWriteCoalescer coalescer, CountDownLatch firstWriteStarted,
+                                             CountDownLatch releaseFirstWrite) throws Exception {
+        ExecutorService callers = Executors.newFixedThreadPool(CALLERS);
+        try {
+            List<Future<Cart>> futures = new ArrayList<>();
+            futures.add(callers.submit(() -> coalescer.apply(1L, operation(), items())));
+            assertTrue(firstWriteStarted.await(10, TimeUnit.SECONDS));
+            for (int i = 1; i < CALLERS; i++) {
+                futures.add(callers.submit(() -> coalescer.apply(1L, operation(), items())));
+            }
+            Thread.sleep(100);
+            releaseFirstWrite.countDown();
+
+            List<Cart> results = new ArrayList<>();
+            for (Future<Cart> future : futures) {
+                results.add(future.get(10, TimeUnit.SECONDS));
+            }
+            return results;
+        } finally {
+            callers.shutdownNow();
+        }
+    }
+
+    private List<CartOperation> operation() {
+        return Collections.singletonList(new CartOperation(1L, 1));
+    }
+
+    private Map<Long, Item> items() {
+        return Collections.singletonMap(1L, item);
+    }
+}
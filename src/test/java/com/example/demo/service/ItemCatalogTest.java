@@ -0,0 +1,203 @@
+package com.example.demo.service;
+
+import com.example.demo.model.persistence.Item;
+import com.example.demo.model.persistence.repositories.ItemRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ItemCatalogTest {
+
+    @Mock
+    private ItemRepository itemRepository;
+
+    @Mock
+    private Clock clock;
+
+    private List<Item> itemList;
+
+    @BeforeEach
+    void setUp() {
+        // setup itemList
+        itemList = new ArrayList<>();
+
+        Item itemOne = new Item();
+        itemOne.setId(1L);
+        itemOne.setName("itemOne");
+        itemOne.setPrice(BigDecimal.valueOf(1.1));
+        itemOne.setDescription("Item One");
+
+        Item itemTwo = new Item();
+        itemTwo.setId(2L);
+        itemTwo.setName("itemTwo");
+        itemTwo.setPrice(BigDecimal.valueOf(2.2));
+        itemTwo.setDescription("Item Two");
+
+        itemList.add(itemOne);
+        itemList.add(itemTwo);
+    }
+
+    @Test
+    void reads_servedFromSingleLoad() {
+        // given
+        ItemCatalog itemCatalog = new ItemCatalog(itemRepository, 10, 1_000L, clock);
+        when(clock.millis()).thenReturn(0L);
+        when(itemRepository.count()).thenReturn(2L);
+        when(itemRepository.findAll(any(Sort.class))).thenReturn(itemList);
+
+        // when
+        List<Item> all = itemCatalog.findAll();
+        Optional<Item> byId = itemCatalog.findById(2L);
+        List<Item> byName = itemCatalog.findByName("itemOne");
+        Optional<Item> missing = itemCatalog.findById(3L);
+
+        // then
+        assertEquals(itemList, all);
+        assertEquals(Optional.of(itemList.get(1)), byId);
+        assertEquals(1, byName.size());
+        assertEquals(itemList.get(0), byName.get(0));
+        assertFalse(missing.isPresent());
+        verify(itemRepository, times(1)).findAll(any(Sort.class));
+        verify(itemRepository, never()).findById(anyLong());
+        assertEquals(4, itemCatalog.getHitCount());
+        assertEquals(1, itemCatalog.getLoadCount());
+    }
+
+    @Test
+    void findPage_servedFromSnapshotInIdOrder() {
+        // given
+        ItemCatalog itemCatalog = new ItemCatalog(itemRepository, 10, 0L, clock);
+        when(itemRepository.count()).thenReturn(2L);
+        when(itemRepository.findAll(any(Sort.class))).thenReturn(itemList);
+
+        // when
+        List<Item> first = itemCatalog.findPage(0L, 1);
+        List<Item> second = itemCatalog.findPage(first.get(0).getId(), 1);
+        List<Item> third = itemCatalog.findPage(second.get(0).getId(), 1);
+
+        // then
+        assertEquals(Collections.singletonList(itemList.get(0)), first);
+        assertEquals(Collections.singletonList(itemList.get(1)), second);
+        assertTrue(third.isEmpty());
+        verify(itemRepository, never()).findByIdGreaterThanOrderByIdAsc(anyLong(), any(Pageable.class));
+    }
+
+    @Test
+    void findPage_catalogLargerThanMaxSize_keysetQuery() {
+        // given
+        ItemCatalog itemCatalog = new ItemCatalog(itemRepository, 1, 0L, clock);
+        when(itemRepository.count()).thenReturn(2L);
+        when(itemRepository.findByIdGreaterThanOrderByIdAsc(1L, PageRequest.of(0, 10)))
+                .thenReturn(Collections.singletonList(itemList.get(1)));
+
+        // when
+        List<Item> page = itemCatalog.findPage(1L, 10);
+
+        // then
+        assertEquals(Collections.singletonList(itemList.get(1)), page);
+    }
+
+    @Test
+    void findAllById_servedFromSnapshot_skipsMissingIds() {
+        // given
+        ItemCatalog itemCatalog = new ItemCatalog(itemRepository, 10, 1_000L, clock);
+        when(clock.millis()).thenReturn(0L);
+        when(itemRepository.count()).thenReturn(2L);
+        when(itemRepository.findAll(any(Sort.class))).thenReturn(itemList);
+
+        // when
+        Map<Long, Item> found = itemCatalog.findAllById(Arrays.asList(2L, 3L));
+
+        // then
+        assertEquals(Collections.singletonMap(2L, itemList.get(1)), found);
+        verify(itemRepository, never()).findAllById(any());
+    }
+
+    @Test
+    void findAllById_catalogLargerThanMaxSize_singleRepositoryCall() {
+        // given
+        ItemCatalog itemCatalog = new ItemCatalog(itemRepository, 1, 0L, clock);
+        when(itemRepository.count()).thenReturn(2L);
+        when(itemRepository.findAllById(Arrays.asList(1L, 2L))).thenReturn(itemList);
+
+        // when
+        Map<Long, Item> found = itemCatalog.findAllById(Arrays.asList(1L, 2L));
+
+        // then
+        assertEquals(2, found.size());
+        verify(itemRepository, times(1)).findAllById(any());
+    }
+
+    @Test
+    void read_afterTtl_reloads() {
+        // given
+        ItemCatalog itemCatalog = new ItemCatalog(itemRepository, 10, 1_000L, clock);
+        when(clock.millis()).thenReturn(0L);
+        when(itemRepository.count()).thenReturn(2L);
+        when(itemRepository.findAll(any(Sort.class))).thenReturn(itemList);
+        itemCatalog.findAll();
+
+        // when
+        when(clock.millis()).thenReturn(1_000L);
+        itemCatalog.findAll();
+
+        // then
+        verify(itemRepository, times(2)).findAll(any(Sort.class));
+        assertEquals(2, itemCatalog.getLoadCount());
+    }
+
+    @Test
+    void read_afterInvalidate_reloads() {
+        // given
+        ItemCatalog itemCatalog = new ItemCatalog(itemRepository, 10, 0L, clock);
+        when(itemRepository.count()).thenReturn(2L);
+        when(itemRepository.findAll(any(Sort.class))).thenReturn(itemList);
+        itemCatalog.findById(1L);
+
+        // when
+        itemCatalog.invalidate();
+        itemCatalog.findById(1L);
+
+        // then
+        verify(itemRepository, times(2)).findAll(any(Sort.class));
+    }
+
+    @Test
+    void read_catalogLargerThanMaxSize_readsFromRepository() {
+        // given
+        ItemCatalog itemCatalog = new ItemCatalog(itemRepository, 1, 1_000L, clock);
+        when(clock.millis()).thenReturn(0L);
+        when(itemRepository.count()).thenReturn(2L);
+        when(itemRepository.findById(1L)).thenReturn(Optional.of(itemList.get(0)));
+
+        // when
+        Optional<Item> first = itemCatalog.findById(1L);
+        Optional<Item> second = itemCatalog.findById(1L);
+
+        // then
+        assertEquals(Optional.of(itemList.get(0)), first);
+        assertEquals(first, second);
+        verify(itemRepository, times(1)).count();
+        verify(itemRepository, times(2)).findById(1L);
+        verify(itemRepository, never()).findAll(any(Sort.class));
+        assertEquals(2, itemCatalog.getMissCount());
+    }
+}
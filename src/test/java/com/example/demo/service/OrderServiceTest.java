@@ -0,0 +1,132 @@
+package com.example.demo.service;
+
+import com.example.demo.model.persistence.Cart;
+import com.example.demo.model.persistence.Item;
+import com.example.demo.model.persistence.User;
+import com.example.demo.model.persistence.UserOrder;
+import com.example.demo.model.persistence.repositories.CartRepository;
+import com.example.demo.model.persistence.repositories.OrderRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OrderServiceTest {
+
+    @Mock
+    private CartRepository cartRepository;
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    @Mock
+    private IdempotencyStore idempotencyStore;
+
+    @InjectMocks
+    private OrderService orderService;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        Item item = new Item();
+        item.setId(1L);
+        item.setName("itemOne");
+        item.setPrice(BigDecimal.valueOf(1.1));
+        item.setDescription("Item One");
+
+        user = new User();
+        user.setId(1L);
+        user.setUsername("testUser");
+        user.setPassword("hashedPassword");
+
+        Cart cart = new Cart();
+        cart.setId(1L);
+        cart.setUser(user);
+        cart.addItem(item, 2);
+        user.setCart(cart);
+    }
+
+    @Test
+    void submit_newKey_createsOrderClearsCartAndRemembersKey() {
+        // given
+        when(cartRepository.lockId(1L)).thenReturn(1L);
+        when(idempotencyStore.find("testUser", "key-1")).thenReturn(null);
+        when(cartRepository.findWithLinesById(1L)).thenReturn(user.getCart());
+        when(orderRepository.save(any(UserOrder.class))).thenAnswer(invocation -> {
+            UserOrder order = invocation.getArgument(0);
+            order.setId(7L);
+            return order;
+        });
+
+        // when
+        OrderService.Submission submission = orderService.submit("testUser", 1L, "key-1");
+
+        // then
+        assertFalse(submission.isReplayed());
+        assertEquals(220L, submission.getOrder().getTotalCents());
+        assertEquals(1, submission.getOrder().getLines().size());
+        assertTrue(user.getCart().getLines().isEmpty());
+        assertEquals(0L, user.getCart().getTotalCents());
+        verify(idempotencyStore, times(1)).put("testUser", "key-1", 7L);
+    }
+
+    @Test
+    void submit_knownKey_returnsExistingOrderWithoutCopyingCart() {
+        // given
+        UserOrder existing = UserOrder.createFromCart(user.getCart());
+        existing.setId(7L);
+        when(cartRepository.lockId(1L)).thenReturn(1L);
+        when(idempotencyStore.find("testUser", "key-1")).thenReturn(7L);
+        when(orderRepository.findById(7L)).thenReturn(Optional.of(existing));
+
+        // when
+        OrderService.Submission submission = orderService.submit("testUser", 1L, "key-1");
+
+        // then
+        assertTrue(submission.isReplayed());
+        assertSame(existing, submission.getOrder());
+        assertEquals(1, user.getCart().getLines().size());
+        verify(cartRepository, never()).findWithLinesById(anyLong());
+        verify(orderRepository, never()).save(any());
+        verify(idempotencyStore, never()).put(any(), any(), anyLong());
+    }
+
+    @Test
+    void submit_withoutKey_skipsStore() {
+        // given
+        when(cartRepository.lockId(1L)).thenReturn(1L);
+        when(cartRepository.findWithLinesById(1L)).thenReturn(user.getCart());
+        when(orderRepository.save(any(UserOrder.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // when
+        OrderService.Submission submission = orderService.submit("testUser", 1L, null);
+
+        // then
+        assertFalse(submission.isReplayed());
+        verifyNoInteractions(idempotencyStore);
+    }
+
+    @Test
+    void submit_cartNotFound_returnsNull() {
+        // given
+        when(cartRepository.lockId(2L)).thenReturn(null);
+
+        // when
+        OrderService.Submission submission = orderService.submit("testUser", 2L, "key-1");
+
+        // then
+        assertNull(submission);
+        verifyNoInteractions(orderRepository, idempotencyStore);
+    }
+}
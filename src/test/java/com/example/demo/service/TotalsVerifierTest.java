@@ -0,0 +1,62 @@
+package com.example.demo.service;
+
+import com.example.demo.model.persistence.Cart;
+import com.example.demo.model.persistence.User;
+import com.example.demo.model.persistence.repositories.CartRepository;
+import com.example.demo.model.persistence.repositories.ItemRepository;
+import com.example.demo.model.persistence.repositories.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest
+class TotalsVerifierTest {
+
+    @Autowired
+    private TotalsVerifier totalsVerifier;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private CartRepository cartRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void recompute_driftedCartTotal_restoredFromLines() {
+        // given
+        Cart cart = new Cart();
+        cart.addItem(itemRepository.findById(1L).get(), 2);
+        cart.addItem(itemRepository.findById(2L).get(), 1);
+        User user = new User();
+        user.setUsername("totalsUser");
+        user.setPassword("hashedPassword");
+        user.setCart(cart);
+        Long cartId = userRepository.save(user).getCart().getId();
+        long expectedCents = cartRepository.findById(cartId).get().getTotalCents();
+
+        long driftedBefore = totalsVerifier.mismatches().get("carts");
+        jdbcTemplate.update("update cart set total_cents = 1 where id = ?", cartId);
+
+        // when
+        Map<String, Long> mismatches = totalsVerifier.mismatches();
+        Map<String, Long> recomputed = totalsVerifier.recompute();
+
+        // then
+        assertEquals(driftedBefore + 1, mismatches.get("carts"));
+        assertEquals(driftedBefore + 1, recomputed.get("carts"));
+        assertEquals(0L, totalsVerifier.mismatches().get("carts"));
+        assertEquals(expectedCents, jdbcTemplate.queryForObject(
+                "select total_cents from cart where id = ?", Long.class, cartId));
+    }
+}